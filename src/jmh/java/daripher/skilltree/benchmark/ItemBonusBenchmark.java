@@ -0,0 +1,56 @@
+package daripher.skilltree.benchmark;
+
+import daripher.skilltree.item.ItemHelper;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.bonus.item.ItemBonus;
+import daripher.skilltree.skill.bonus.item.ItemDurabilityBonus;
+import daripher.skilltree.skill.bonus.item.ItemSkillBonus;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Item bonuses are stored in the stack's tag and decoded on every lookup, and the durability bonus
+ * mixin does so on every {@link ItemStack#getMaxDamage()} call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ItemBonusBenchmark {
+  @Param({"4", "16"})
+  public int bonuses;
+
+  private ItemStack stack;
+
+  @Setup(Level.Trial)
+  public void createStack(SyntheticTreeState tree) {
+    stack = new ItemStack(Items.DIAMOND_SWORD);
+    ItemHelper.addItemBonus(
+        stack, new ItemDurabilityBonus(100, AttributeModifier.Operation.ADDITION));
+    ItemHelper.addItemBonus(
+        stack, new ItemDurabilityBonus(0.2F, AttributeModifier.Operation.MULTIPLY_BASE));
+    tree.learnedSkills.stream()
+        .map(PassiveSkill::getBonuses)
+        .flatMap(List::stream)
+        .limit(Math.max(0, bonuses - 2))
+        .forEach(bonus -> ItemHelper.addItemBonus(stack, new ItemSkillBonus(bonus)));
+  }
+
+  @Benchmark
+  public List<ItemBonus<?>> getItemBonuses() {
+    return ItemHelper.getItemBonuses(stack);
+  }
+
+  @Benchmark
+  public List<ItemDurabilityBonus> getDurabilityBonuses() {
+    return ItemHelper.getItemBonuses(stack, ItemDurabilityBonus.class);
+  }
+
+  @Benchmark
+  public int getMaxDamage() {
+    return stack.getMaxDamage();
+  }
+}
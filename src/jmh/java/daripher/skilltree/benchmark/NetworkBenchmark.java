@@ -0,0 +1,35 @@
+package daripher.skilltree.benchmark;
+
+import daripher.skilltree.network.NetworkHelper;
+import daripher.skilltree.skill.PassiveSkill;
+import io.netty.buffer.Unpooled;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class NetworkBenchmark {
+  private final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+
+  @Benchmark
+  public int writePassiveSkills(SyntheticTreeState tree) {
+    buf.clear();
+    NetworkHelper.writePassiveSkills(buf, tree.tree.values());
+    return buf.writerIndex();
+  }
+
+  @Benchmark
+  public List<PassiveSkill> roundTripPassiveSkills(SyntheticTreeState tree) {
+    buf.clear();
+    NetworkHelper.writePassiveSkills(buf, tree.tree.values());
+    return NetworkHelper.readPassiveSkills(buf);
+  }
+
+  @TearDown(Level.Trial)
+  public void release() {
+    buf.release();
+  }
+}
@@ -0,0 +1,41 @@
+package daripher.skilltree.benchmark;
+
+import daripher.skilltree.capability.skill.PlayerSkills;
+import daripher.skilltree.data.reloader.SkillsReloader;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.nbt.CompoundTag;
+import org.openjdk.jmh.annotations.*;
+
+/** Skills are looked up in the reloaded catalog on load, so the tree is registered there first. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PlayerSkillsBenchmark {
+  private final PlayerSkills playerSkills = new PlayerSkills();
+  private CompoundTag tag;
+
+  @Setup(Level.Trial)
+  public void learnSkills(SyntheticTreeState tree) {
+    SkillsReloader.getSkills().putAll(tree.tree);
+    SkillsReloader.invalidateSkillGraph();
+    playerSkills.getPlayerSkills().addAll(tree.learnedSkills);
+    tag = playerSkills.serializeNBT();
+  }
+
+  @TearDown(Level.Trial)
+  public void forgetSkills(SyntheticTreeState tree) {
+    SkillsReloader.getSkills().keySet().removeAll(tree.tree.keySet());
+    SkillsReloader.invalidateSkillGraph();
+  }
+
+  @Benchmark
+  public CompoundTag serializeNBT() {
+    return playerSkills.serializeNBT();
+  }
+
+  @Benchmark
+  public PlayerSkills deserializeNBT() {
+    playerSkills.deserializeNBT(tag);
+    return playerSkills;
+  }
+}
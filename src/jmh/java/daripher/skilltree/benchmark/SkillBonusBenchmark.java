@@ -0,0 +1,47 @@
+package daripher.skilltree.benchmark;
+
+import com.mojang.authlib.GameProfile;
+import daripher.skilltree.capability.skill.PlayerSkillsProvider;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.bonus.SkillBonusHandler;
+import daripher.skilltree.skill.bonus.player.AttributeBonus;
+import daripher.skilltree.skill.bonus.player.DamageBonus;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SkillBonusBenchmark {
+  private ServerPlayer player;
+
+  @Setup(Level.Trial)
+  public void createPlayer(SyntheticTreeState tree) {
+    GameProfile profile = new GameProfile(UUID.randomUUID(), "skilltree_benchmark");
+    player =
+        FakePlayerFactory.get(ServerLifecycleHooks.getCurrentServer().overworld(), profile);
+    List<PassiveSkill> skills = PlayerSkillsProvider.get(player).getPlayerSkills();
+    skills.clear();
+    skills.addAll(tree.learnedSkills);
+  }
+
+  @Benchmark
+  public List<AttributeBonus> getAttributeBonuses() {
+    return SkillBonusHandler.getSkillBonuses(player, AttributeBonus.class);
+  }
+
+  @Benchmark
+  public List<DamageBonus> getDamageBonuses() {
+    return SkillBonusHandler.getSkillBonuses(player, DamageBonus.class);
+  }
+
+  @Benchmark
+  public float getJumpHeightMultiplier() {
+    return SkillBonusHandler.getJumpHeightMultiplier(player);
+  }
+}
@@ -0,0 +1,45 @@
+package daripher.skilltree.benchmark;
+
+import com.mojang.logging.LogUtils;
+import daripher.skilltree.SkillTreeMod;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+
+/**
+ * Runs the benchmarks inside a started server, so that registries, capabilities and mixins are in
+ * place. Benchmarks can't be forked into a plain JVM for that reason and share the server's one.
+ */
+@EventBusSubscriber(modid = SkillTreeMod.MOD_ID)
+public class SkillTreeBenchmarks {
+  private static final String PROPERTY_PREFIX = "skilltree.benchmark.";
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  @SubscribeEvent
+  public static void runBenchmarks(ServerStartedEvent event) {
+    String include = System.getProperty(PROPERTY_PREFIX + "include");
+    if (include == null) return;
+    ChainedOptionsBuilder options =
+        new OptionsBuilder()
+            .include(include)
+            .forks(0)
+            .warmupIterations(Integer.getInteger(PROPERTY_PREFIX + "warmup", 3))
+            .measurementIterations(Integer.getInteger(PROPERTY_PREFIX + "iterations", 5))
+            .resultFormat(ResultFormatType.JSON)
+            .result(System.getProperty(PROPERTY_PREFIX + "output", "jmh-results.json"));
+    String skills = System.getProperty(PROPERTY_PREFIX + "skills");
+    if (skills != null) options.param("skills", skills.split(","));
+    try {
+      new Runner(options.build()).run();
+    } catch (RunnerException exception) {
+      LOGGER.error("Couldn't run benchmarks", exception);
+    }
+    event.getServer().halt(false);
+  }
+}
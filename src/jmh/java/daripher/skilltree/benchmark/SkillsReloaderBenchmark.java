@@ -0,0 +1,40 @@
+package daripher.skilltree.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import daripher.skilltree.data.reloader.SkillsReloader;
+import daripher.skilltree.skill.PassiveSkill;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Decodes every skill of the tree the same way the reload listener reads skill files. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SkillsReloaderBenchmark {
+  private List<String> files;
+  private List<JsonElement> jsons;
+
+  @Setup(Level.Trial)
+  public void encodeSkills(SyntheticTreeState tree) {
+    jsons = tree.tree.values().stream().map(SkillsReloader.GSON::toJsonTree).toList();
+    files = jsons.stream().map(SkillsReloader.GSON::toJson).toList();
+  }
+
+  @Benchmark
+  public void decodeJson(Blackhole blackhole) {
+    for (JsonElement json : jsons) {
+      blackhole.consume(SkillsReloader.GSON.fromJson(json, PassiveSkill.class));
+    }
+  }
+
+  @Benchmark
+  public void parseAndDecodeFiles(Blackhole blackhole) {
+    for (String file : files) {
+      JsonElement json = JsonParser.parseString(file);
+      blackhole.consume(SkillsReloader.GSON.fromJson(json, PassiveSkill.class));
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package daripher.skilltree.benchmark;
+
+import daripher.skilltree.data.generation.skills.SyntheticSkillTreeGenerator;
+import daripher.skilltree.skill.PassiveSkill;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.resources.ResourceLocation;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Synthetic skill tree shared by all benchmarks. Learned skills are the first skills of the tree,
+ * which are always connected, as every generated skill is attached to an earlier one.
+ */
+@State(Scope.Benchmark)
+public class SyntheticTreeState {
+  @Param({"1000", "10000"})
+  public int skills;
+
+  @Param({"50", "300"})
+  public int learned;
+
+  public Map<ResourceLocation, PassiveSkill> tree;
+  public List<PassiveSkill> learnedSkills;
+
+  @Setup(Level.Trial)
+  public void generate() {
+    tree = new SyntheticSkillTreeGenerator(SyntheticSkillTreeGenerator.Settings.ofSize(skills))
+        .generate();
+    learnedSkills = new ArrayList<>(tree.values()).subList(0, Math.min(learned, tree.size()));
+  }
+}
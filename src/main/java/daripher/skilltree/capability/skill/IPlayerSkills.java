@@ -14,6 +14,8 @@ public interface IPlayerSkills extends INBTSerializable<CompoundTag> {
 
   boolean learnSkill(ServerPlayer player, PassiveSkill passiveSkill);
 
+  boolean refundSkill(ServerPlayer player, PassiveSkill passiveSkill);
+
   boolean hasSkill(ResourceLocation skillId);
 
   int getSkillPoints();
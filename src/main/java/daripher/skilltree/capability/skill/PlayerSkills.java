@@ -1,10 +1,14 @@
 package daripher.skilltree.capability.skill;
 
 import daripher.skilltree.data.reloader.SkillsReloader;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
+import daripher.skilltree.skill.LearnedSkillSet;
 import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.SkillGraph;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
@@ -17,6 +21,7 @@ public class PlayerSkills implements IPlayerSkills {
   private final List<PassiveSkill> skills = new ArrayList<>();
   private int skillPoints;
   private boolean treeReset;
+  private @Nullable LearnedSkillSet learnedSet;
 
   @Override
   public List<PassiveSkill> getPlayerSkills() {
@@ -41,16 +46,41 @@ public class PlayerSkills implements IPlayerSkills {
   @Override
   public boolean learnSkill(ServerPlayer player, PassiveSkill passiveSkill) {
     if (skillPoints == 0) return false;
-    if (skills.contains(passiveSkill)) return false;
+    LearnedSkillSet learned = getLearnedSet();
+    int index = learned.getGraph().indexOf(passiveSkill.getId());
+    if (!learned.canLearn(index)) return false;
     skillPoints--;
+    learned.add(index);
+    SkillTreeMetrics.SKILLS_LEARNED.increment();
     return skills.add(passiveSkill);
   }
 
+  @Override
+  public boolean refundSkill(ServerPlayer player, PassiveSkill passiveSkill) {
+    LearnedSkillSet learned = getLearnedSet();
+    int index = learned.getGraph().indexOf(passiveSkill.getId());
+    if (!learned.canRefund(index)) return false;
+    skillPoints++;
+    learned.remove(index);
+    skills.remove(passiveSkill);
+    passiveSkill.remove(player);
+    SkillTreeMetrics.SKILLS_REFUNDED.increment();
+    return true;
+  }
+
   @Override
   public boolean hasSkill(ResourceLocation skillId) {
     return skills.stream().map(PassiveSkill::getId).anyMatch(skillId::equals);
   }
 
+  private LearnedSkillSet getLearnedSet() {
+    SkillGraph graph = SkillsReloader.getSkillGraph();
+    if (learnedSet == null || learnedSet.getGraph() != graph) {
+      learnedSet = LearnedSkillSet.of(graph, skills);
+    }
+    return learnedSet;
+  }
+
   @Override
   public boolean isTreeReset() {
     return treeReset;
@@ -66,6 +96,8 @@ public class PlayerSkills implements IPlayerSkills {
     skillPoints += getPlayerSkills().size();
     getPlayerSkills().forEach(skill -> skill.remove(player));
     getPlayerSkills().clear();
+    learnedSet = null;
+    SkillTreeMetrics.TREE_RESETS.increment();
   }
 
   @Override
@@ -83,6 +115,7 @@ public class PlayerSkills implements IPlayerSkills {
   @Override
   public void deserializeNBT(CompoundTag tag) {
     skills.clear();
+    learnedSet = null;
     UUID treeVersion = tag.hasUUID("TreeVersion") ? tag.getUUID("TreeVersion") : null;
     skillPoints = tag.getInt("Points");
     ListTag skillsTag = tag.getList("Skills", Tag.TAG_STRING);
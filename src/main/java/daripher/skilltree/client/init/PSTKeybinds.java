@@ -18,10 +18,16 @@ public class PSTKeybinds {
   private static final KeyMapping SKILL_TREE_KEY =
       new KeyMapping(
           "key.display_skill_tree", GLFW.GLFW_KEY_O, "key.categories." + SkillTreeMod.MOD_ID);
+  public static final KeyMapping DEBUG_OVERLAY_KEY =
+      new KeyMapping(
+          "key.skill_tree_debug_overlay",
+          GLFW.GLFW_KEY_F6,
+          "key.categories." + SkillTreeMod.MOD_ID);
 
   @SubscribeEvent
   public static void registerKeybinds(RegisterKeyMappingsEvent event) {
     event.register(SKILL_TREE_KEY);
+    event.register(DEBUG_OVERLAY_KEY);
   }
 
   @EventBusSubscriber(modid = SkillTreeMod.MOD_ID, value = Dist.CLIENT)
@@ -0,0 +1,153 @@
+package daripher.skilltree.client.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import daripher.skilltree.client.widget.SkillButton;
+import java.util.List;
+import javax.annotation.Nullable;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.util.Mth;
+
+/**
+ * Draws skill buttons from the {@link SkillIconAtlas} in a single draw call. Every button is
+ * written into the buffer in the order {@link SkillButton} renders its parts, with animation alpha
+ * and favorite highlight color stored in the vertices instead of the shader color.
+ */
+public class SkillButtonBatch {
+  private static final float FRAME_WIDTH = 1 / 3F;
+
+  /**
+   * Renders the buttons scaled by zoom around their centers. Buttons with textures that aren't in
+   * the atlas are added to the skipped list to be rendered one by one.
+   */
+  public static void render(
+      PoseStack poseStack,
+      List<SkillButton> buttons,
+      float zoom,
+      float animation,
+      List<SkillButton> skipped) {
+    SkillIconAtlas atlas = SkillIconAtlas.getInstance();
+    if (atlas == null) {
+      skipped.addAll(buttons);
+      return;
+    }
+    @Nullable TextureAtlasSprite favoriteSprite =
+        atlas.getSprite(SkillButton.FAVORITE_HIGHLIGHT_TEXTURE);
+    Matrix4f pose = poseStack.last().pose();
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR_TEX);
+    float pulse = (Mth.sin(animation / 3F) + 1) / 2;
+    int favoriteColor = SkillButton.getFavoriteColor(animation);
+    for (SkillButton button : buttons) {
+      TextureAtlasSprite background = atlas.getSprite(button.skill.getBackgroundTexture());
+      TextureAtlasSprite icon = atlas.getSprite(button.skill.getIconTexture());
+      boolean favorite = button.isFavorite();
+      if (background == null || icon == null || favorite && favoriteSprite == null) {
+        skipped.add(button);
+        continue;
+      }
+      float size = button.getWidth() * zoom;
+      float centerX = (float) (button.x + button.getWidth() / 2d);
+      float centerY = (float) (button.y + button.getHeight() / 2d);
+      float x0 = centerX - size / 2;
+      float y0 = centerY - size / 2;
+      if (favorite) {
+        float highlightSize = size * 1.4F * (1 + 0.3F * pulse);
+        float rotation = animation * Mth.DEG_TO_RAD;
+        addRotatedQuad(
+            builder,
+            pose,
+            centerX,
+            centerY,
+            highlightSize,
+            rotation,
+            favoriteSprite,
+            favoriteColor);
+      }
+      addQuad(builder, pose, x0, y0, size, background, 0, FRAME_WIDTH, 0xFFFFFFFF);
+      float iconOffset = size / 4;
+      addQuad(builder, pose, x0 + iconOffset, y0 + iconOffset, size / 2, icon, 0, 1, 0xFFFFFFFF);
+      if (!button.highlighted) {
+        float alpha = button.animated ? 1 - pulse : 1;
+        int color = getWhite(alpha);
+        addQuad(builder, pose, x0, y0, size, background, FRAME_WIDTH, FRAME_WIDTH * 2, color);
+      }
+      if (button.highlighted || button.animated) {
+        float alpha = button.animated ? pulse : 1;
+        int color = getWhite(alpha);
+        addQuad(builder, pose, x0, y0, size, background, FRAME_WIDTH * 2, 1, color);
+      }
+    }
+    RenderSystem.setShader(GameRenderer::getPositionColorTexShader);
+    RenderSystem.setShaderTexture(0, SkillIconAtlas.LOCATION);
+    RenderSystem.setShaderColor(1F, 1F, 1F, 1F);
+    RenderSystem.enableBlend();
+    RenderSystem.defaultBlendFunc();
+    RenderSystem.enableDepthTest();
+    BufferUploader.drawWithShader(builder.end());
+  }
+
+  private static int getWhite(float alpha) {
+    return (int) (Mth.clamp(alpha, 0F, 1F) * 255) << 24 | 0xFFFFFF;
+  }
+
+  /** Adds a square quad using a horizontal part of the sprite, given in fractions of its width. */
+  private static void addQuad(
+      BufferBuilder builder,
+      Matrix4f pose,
+      float x,
+      float y,
+      float size,
+      TextureAtlasSprite sprite,
+      float u0,
+      float u1,
+      int color) {
+    float minU = sprite.getU(u0 * 16);
+    float maxU = sprite.getU(u1 * 16);
+    float minV = sprite.getV0();
+    float maxV = sprite.getV1();
+    addVertex(builder, pose, x, y + size, minU, maxV, color);
+    addVertex(builder, pose, x + size, y + size, maxU, maxV, color);
+    addVertex(builder, pose, x + size, y, maxU, minV, color);
+    addVertex(builder, pose, x, y, minU, minV, color);
+  }
+
+  private static void addRotatedQuad(
+      BufferBuilder builder,
+      Matrix4f pose,
+      float centerX,
+      float centerY,
+      float size,
+      float rotation,
+      TextureAtlasSprite sprite,
+      int color) {
+    float half = size / 2;
+    float cos = Mth.cos(rotation) * half;
+    float sin = Mth.sin(rotation) * half;
+    int opaqueColor = 0xFF000000 | color;
+    float u0 = sprite.getU0();
+    float u1 = sprite.getU1();
+    float v0 = sprite.getV0();
+    float v1 = sprite.getV1();
+    addVertex(builder, pose, centerX - cos - sin, centerY - sin + cos, u0, v1, opaqueColor);
+    addVertex(builder, pose, centerX + cos - sin, centerY + sin + cos, u1, v1, opaqueColor);
+    addVertex(builder, pose, centerX + cos + sin, centerY + sin - cos, u1, v0, opaqueColor);
+    addVertex(builder, pose, centerX - cos + sin, centerY - sin - cos, u0, v0, opaqueColor);
+  }
+
+  private static void addVertex(
+      BufferBuilder builder, Matrix4f pose, float x, float y, float u, float v, int color) {
+    builder
+        .vertex(pose, x, y, 0)
+        .color(color >> 16 & 0xFF, color >> 8 & 0xFF, color & 0xFF, color >>> 24)
+        .uv(u, v)
+        .endVertex();
+  }
+}
@@ -0,0 +1,202 @@
+package daripher.skilltree.client.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexBuffer;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import daripher.skilltree.client.widget.SkillButton;
+import daripher.skilltree.client.widget.SkillConnection;
+import java.util.List;
+import javax.annotation.Nullable;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
+
+/**
+ * Skill connections baked into a vertex buffer. Connection geometry only depends on zoom, screen
+ * size and which skills are learned, so the buffer is kept between frames and only uploaded again
+ * when one of those changes. Simplified meshes are made of thin untextured lines, for zoom levels
+ * where the connection texture can't be made out.
+ */
+public class SkillConnectionMesh implements AutoCloseable {
+  public static final ResourceLocation TEXTURE =
+      new ResourceLocation("skilltree:textures/screen/skill_connection.png");
+  private static final float TEXTURE_WIDTH = 50;
+  private static final float THICKNESS = 6;
+  private static final float SIMPLIFIED_THICKNESS = 1.5F;
+  private static final int SIMPLIFIED_COLOR = 0xFF505050;
+  private static final int SIMPLIFIED_HIGHLIGHT_COLOR = 0xFFFCE266;
+  private @Nullable VertexBuffer buffer;
+  private boolean dirty = true;
+  private float zoom;
+  private int width;
+  private int height;
+  private boolean simplified;
+
+  /** Marks the mesh for rebuilding, should be called when connection highlights change. */
+  public void invalidate() {
+    dirty = true;
+  }
+
+  public boolean needsRebuild(float zoom, int width, int height) {
+    if (dirty || buffer == null) return true;
+    return this.zoom != zoom || this.width != width || this.height != height;
+  }
+
+  public void rebuild(
+      List<SkillConnection> connections, float zoom, int width, int height, boolean simplified) {
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, getVertexFormat(simplified));
+    Matrix4f identity = new Matrix4f();
+    identity.setIdentity();
+    for (SkillConnection connection : connections) {
+      SkillButton button1 = connection.getFirstButton();
+      SkillButton button2 = connection.getSecondButton();
+      boolean highlighted = button1.highlighted && button2.highlighted;
+      if (simplified) {
+        addSimplifiedConnection(builder, identity, button1, button2, highlighted);
+      } else {
+        addConnection(builder, identity, button1, button2, zoom, highlighted);
+      }
+    }
+    if (buffer == null) buffer = new VertexBuffer();
+    buffer.bind();
+    buffer.upload(builder.end());
+    VertexBuffer.unbind();
+    this.zoom = zoom;
+    this.width = width;
+    this.height = height;
+    this.simplified = simplified;
+    dirty = false;
+  }
+
+  public void render(PoseStack poseStack) {
+    if (buffer == null) return;
+    prepareRendering(simplified);
+    buffer.bind();
+    buffer.drawWithShader(
+        poseStack.last().pose(), RenderSystem.getProjectionMatrix(), RenderSystem.getShader());
+    VertexBuffer.unbind();
+  }
+
+  /** Draws highlighted versions of the connections over the mesh, faded by the alpha. */
+  public static void renderHighlights(
+      PoseStack poseStack,
+      List<SkillConnection> connections,
+      float zoom,
+      float alpha,
+      boolean simplified) {
+    if (connections.isEmpty()) return;
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, getVertexFormat(simplified));
+    Matrix4f pose = poseStack.last().pose();
+    for (SkillConnection connection : connections) {
+      SkillButton button1 = connection.getFirstButton();
+      SkillButton button2 = connection.getSecondButton();
+      if (simplified) {
+        addSimplifiedConnection(builder, pose, button1, button2, true);
+      } else {
+        addConnection(builder, pose, button1, button2, zoom, true);
+      }
+    }
+    prepareRendering(simplified);
+    RenderSystem.setShaderColor(1F, 1F, 1F, alpha);
+    BufferUploader.drawWithShader(builder.end());
+    RenderSystem.setShaderColor(1F, 1F, 1F, 1F);
+  }
+
+  private static VertexFormat getVertexFormat(boolean simplified) {
+    return simplified ? DefaultVertexFormat.POSITION_COLOR : DefaultVertexFormat.POSITION_TEX;
+  }
+
+  private static void prepareRendering(boolean simplified) {
+    if (simplified) {
+      RenderSystem.setShader(GameRenderer::getPositionColorShader);
+    } else {
+      RenderSystem.setShader(GameRenderer::getPositionTexShader);
+      RenderSystem.setShaderTexture(0, TEXTURE);
+    }
+    RenderSystem.enableBlend();
+    RenderSystem.defaultBlendFunc();
+    RenderSystem.enableDepthTest();
+  }
+
+  /**
+   * Adds a textured line between the button centers. The texture repeats along the line, its upper
+   * half is the highlighted connection and its lower half the regular one.
+   */
+  private static void addConnection(
+      BufferBuilder builder,
+      Matrix4f pose,
+      SkillButton button1,
+      SkillButton button2,
+      float zoom,
+      boolean highlighted) {
+    float x1 = (float) (button1.x + button1.getWidth() / 2d);
+    float y1 = (float) (button1.y + button1.getHeight() / 2d);
+    float x2 = (float) (button2.x + button2.getWidth() / 2d);
+    float y2 = (float) (button2.y + button2.getHeight() / 2d);
+    float length = Mth.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+    if (length == 0) return;
+    float halfThickness = THICKNESS / 2 * zoom;
+    float normalX = -(y2 - y1) / length * halfThickness;
+    float normalY = (x2 - x1) / length * halfThickness;
+    float maxU = length / TEXTURE_WIDTH;
+    float minV = highlighted ? 0F : 0.5F;
+    float maxV = minV + 0.5F;
+    builder.vertex(pose, x1 + normalX, y1 + normalY, 0).uv(0, maxV).endVertex();
+    builder.vertex(pose, x2 + normalX, y2 + normalY, 0).uv(maxU, maxV).endVertex();
+    builder.vertex(pose, x2 - normalX, y2 - normalY, 0).uv(maxU, minV).endVertex();
+    builder.vertex(pose, x1 - normalX, y1 - normalY, 0).uv(0, minV).endVertex();
+  }
+
+  private static void addSimplifiedConnection(
+      BufferBuilder builder,
+      Matrix4f pose,
+      SkillButton button1,
+      SkillButton button2,
+      boolean highlighted) {
+    float x1 = (float) (button1.x + button1.getWidth() / 2d);
+    float y1 = (float) (button1.y + button1.getHeight() / 2d);
+    float x2 = (float) (button2.x + button2.getWidth() / 2d);
+    float y2 = (float) (button2.y + button2.getHeight() / 2d);
+    int color = highlighted ? SIMPLIFIED_HIGHLIGHT_COLOR : SIMPLIFIED_COLOR;
+    addLine(builder, pose, x1, y1, x2, y2, SIMPLIFIED_THICKNESS, color);
+  }
+
+  /** Adds an untextured line of {@link DefaultVertexFormat#POSITION_COLOR} vertices. */
+  public static void addLine(
+      BufferBuilder builder,
+      Matrix4f pose,
+      float x1,
+      float y1,
+      float x2,
+      float y2,
+      float thickness,
+      int color) {
+    float length = Mth.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+    if (length == 0) return;
+    float normalX = -(y2 - y1) / length * thickness / 2;
+    float normalY = (x2 - x1) / length * thickness / 2;
+    int red = color >> 16 & 0xFF;
+    int green = color >> 8 & 0xFF;
+    int blue = color & 0xFF;
+    int alpha = color >>> 24;
+    builder.vertex(pose, x1 + normalX, y1 + normalY, 0).color(red, green, blue, alpha).endVertex();
+    builder.vertex(pose, x2 + normalX, y2 + normalY, 0).color(red, green, blue, alpha).endVertex();
+    builder.vertex(pose, x2 - normalX, y2 - normalY, 0).color(red, green, blue, alpha).endVertex();
+    builder.vertex(pose, x1 - normalX, y1 - normalY, 0).color(red, green, blue, alpha).endVertex();
+  }
+
+  @Override
+  public void close() {
+    if (buffer != null) buffer.close();
+    buffer = null;
+    dirty = true;
+  }
+}
@@ -0,0 +1,75 @@
+package daripher.skilltree.client.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import daripher.skilltree.client.widget.SkillButton;
+import java.util.List;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.util.Mth;
+
+/**
+ * Low detail version of {@link SkillButtonBatch}. When skills are only a few pixels big their icons
+ * can't be seen anyway, so every skill is drawn as an untextured dot colored by its type.
+ */
+public class SkillDotBatch {
+  private static final float DOT_SIZE = 0.6F;
+  private static final float DARKENING = 0.35F;
+
+  public static void render(
+      PoseStack poseStack, List<SkillButton> buttons, float zoom, float animation) {
+    Matrix4f pose = poseStack.last().pose();
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+    float pulse = (Mth.sin(animation / 3F) + 1) / 2;
+    for (SkillButton button : buttons) {
+      float centerX = (float) (button.x + button.getWidth() / 2d);
+      float centerY = (float) (button.y + button.getHeight() / 2d);
+      float size = button.getWidth() * zoom * DOT_SIZE;
+      addDot(builder, pose, centerX, centerY, size, getColor(button, pulse));
+    }
+    draw(builder);
+  }
+
+  /** Learned skills are drawn in full color, learnable ones pulse and the rest are darkened. */
+  public static int getColor(SkillButton button, float pulse) {
+    int color = button.getTypeColor();
+    if (button.highlighted) return 0xFF000000 | color;
+    float brightness = button.animated ? Mth.lerp(pulse, DARKENING, 1F) : DARKENING;
+    int red = (int) ((color >> 16 & 0xFF) * brightness);
+    int green = (int) ((color >> 8 & 0xFF) * brightness);
+    int blue = (int) ((color & 0xFF) * brightness);
+    return 0xFF000000 | red << 16 | green << 8 | blue;
+  }
+
+  /** Adds a diamond shaped dot, its size is the distance between the opposite corners. */
+  public static void addDot(
+      BufferBuilder builder, Matrix4f pose, float centerX, float centerY, float size, int color) {
+    float half = size / 2;
+    addVertex(builder, pose, centerX, centerY + half, color);
+    addVertex(builder, pose, centerX + half, centerY, color);
+    addVertex(builder, pose, centerX, centerY - half, color);
+    addVertex(builder, pose, centerX - half, centerY, color);
+  }
+
+  /** Draws a buffer of {@link DefaultVertexFormat#POSITION_COLOR} quads. */
+  public static void draw(BufferBuilder builder) {
+    RenderSystem.setShader(GameRenderer::getPositionColorShader);
+    RenderSystem.setShaderColor(1F, 1F, 1F, 1F);
+    RenderSystem.enableBlend();
+    RenderSystem.defaultBlendFunc();
+    BufferUploader.drawWithShader(builder.end());
+  }
+
+  private static void addVertex(BufferBuilder builder, Matrix4f pose, float x, float y, int color) {
+    builder
+        .vertex(pose, x, y, 0)
+        .color(color >> 16 & 0xFF, color >> 8 & 0xFF, color & 0xFF, color >>> 24)
+        .endVertex();
+  }
+}
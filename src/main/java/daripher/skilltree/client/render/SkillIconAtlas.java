@@ -0,0 +1,104 @@
+package daripher.skilltree.client.render;
+
+import daripher.skilltree.SkillTreeMod;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.texture.MissingTextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureAtlas;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber.Bus;
+
+/**
+ * Every texture in the {@code textures/icons} folder of all namespaces stitched into one atlas, so
+ * skill backgrounds, icons and frames can be drawn without switching textures. Skills can't be
+ * known at resource reload, as they come from the server, so the whole folder is stitched.
+ */
+@EventBusSubscriber(modid = SkillTreeMod.MOD_ID, bus = Bus.MOD, value = Dist.CLIENT)
+public class SkillIconAtlas extends SimplePreparableReloadListener<TextureAtlas.Preparations> {
+  public static final ResourceLocation LOCATION =
+      new ResourceLocation(SkillTreeMod.MOD_ID, "textures/atlas/skill_icons.png");
+  private static final String ICONS_FOLDER = "textures/icons";
+  private static @Nullable SkillIconAtlas instance;
+  private final Map<ResourceLocation, TextureAtlasSprite> sprites = new HashMap<>();
+  private final TextureAtlas atlas;
+
+  private SkillIconAtlas(TextureManager textureManager) {
+    this.atlas = new TextureAtlas(LOCATION);
+    textureManager.register(atlas.location(), atlas);
+  }
+
+  @SubscribeEvent
+  public static void registerReloadListener(RegisterClientReloadListenersEvent event) {
+    instance = new SkillIconAtlas(Minecraft.getInstance().getTextureManager());
+    event.registerReloadListener(instance);
+  }
+
+  public static @Nullable SkillIconAtlas getInstance() {
+    return instance;
+  }
+
+  /** @return the sprite of the texture, or null if the texture isn't stitched into the atlas */
+  public @Nullable TextureAtlasSprite getSprite(ResourceLocation texture) {
+    TextureAtlasSprite sprite = sprites.computeIfAbsent(texture, this::findSprite);
+    if (sprite == null) return null;
+    return sprite.getName().equals(MissingTextureAtlasSprite.getLocation()) ? null : sprite;
+  }
+
+  private TextureAtlasSprite findSprite(ResourceLocation texture) {
+    String path = texture.getPath();
+    if (!path.startsWith(ICONS_FOLDER + "/") || !path.endsWith(".png")) {
+      return atlas.getSprite(MissingTextureAtlasSprite.getLocation());
+    }
+    return atlas.getSprite(getSpriteName(texture));
+  }
+
+  @Override
+  protected TextureAtlas.Preparations prepare(
+      ResourceManager resourceManager, ProfilerFiller profiler) {
+    profiler.startTick();
+    profiler.push("stitching");
+    Stream<ResourceLocation> spriteNames =
+        resourceManager
+            .listResources(ICONS_FOLDER, location -> location.getPath().endsWith(".png"))
+            .keySet()
+            .stream()
+            .map(SkillIconAtlas::getSpriteName);
+    TextureAtlas.Preparations preparations =
+        atlas.prepareToStitch(resourceManager, spriteNames, profiler, 0);
+    profiler.pop();
+    profiler.endTick();
+    return preparations;
+  }
+
+  @Override
+  protected void apply(
+      TextureAtlas.Preparations preparations,
+      ResourceManager resourceManager,
+      ProfilerFiller profiler) {
+    profiler.startTick();
+    profiler.push("upload");
+    atlas.reload(preparations);
+    sprites.clear();
+    profiler.pop();
+    profiler.endTick();
+  }
+
+  /** Atlas sprites are named by their path inside the textures folder, without extension. */
+  private static ResourceLocation getSpriteName(ResourceLocation texture) {
+    String path = texture.getPath();
+    path = path.substring("textures/".length(), path.length() - ".png".length());
+    return new ResourceLocation(texture.getNamespace(), path);
+  }
+}
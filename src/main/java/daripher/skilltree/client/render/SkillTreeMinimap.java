@@ -0,0 +1,222 @@
+package daripher.skilltree.client.render;
+
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import daripher.skilltree.client.screen.ScreenHelper;
+import daripher.skilltree.client.widget.SkillButton;
+import daripher.skilltree.client.widget.SkillConnection;
+import daripher.skilltree.skill.PassiveSkill;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nullable;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiComponent;
+import net.minecraft.client.renderer.GameRenderer;
+
+/**
+ * Whole skill tree drawn in a corner of the screen. The tree is drawn once into an offscreen
+ * framebuffer, which is then reused every frame until the learned skills change, so only the
+ * viewport frame on top of it follows panning and zooming.
+ */
+public class SkillTreeMinimap implements AutoCloseable {
+  private static final int PADDING = 4;
+  private static final int BACKGROUND_COLOR = 0xAA000000;
+  private static final int BORDER_COLOR = 0xFF505050;
+  private static final int VIEWPORT_COLOR = 0xFFFFFFFF;
+  private static final int CONNECTION_COLOR = 0xFF505050;
+  private static final int HIGHLIGHTED_CONNECTION_COLOR = 0xFFFCE266;
+  private final int size;
+  private @Nullable TextureTarget target;
+  private boolean dirty = true;
+  private int x;
+  private int y;
+  private float centerX;
+  private float centerY;
+  private float scale = 1F;
+
+  public SkillTreeMinimap(int size) {
+    this.size = size;
+  }
+
+  public void setPosition(int x, int y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  /** Marks the minimap for redrawing, should be called when learned skills change. */
+  public void invalidate() {
+    dirty = true;
+  }
+
+  /**
+   * Renders the minimap with a frame around the visible part of the tree. The visible area is given
+   * in skill positions, the same coordinates {@link PassiveSkill#getPositionX()} uses.
+   */
+  public void render(
+      PoseStack poseStack,
+      Collection<SkillButton> buttons,
+      List<SkillConnection> connections,
+      float viewMinX,
+      float viewMinY,
+      float viewMaxX,
+      float viewMaxY) {
+    int pixelSize = getPixelSize();
+    if (dirty || target == null || target.width != pixelSize) {
+      redraw(buttons, connections, pixelSize);
+    }
+    GuiComponent.fill(poseStack, x, y, x + size, y + size, BACKGROUND_COLOR);
+    renderTarget(poseStack);
+    int frameMinX = Math.max(x, (int) toScreenX(viewMinX));
+    int frameMinY = Math.max(y, (int) toScreenY(viewMinY));
+    int frameMaxX = Math.min(x + size, (int) toScreenX(viewMaxX));
+    int frameMaxY = Math.min(y + size, (int) toScreenY(viewMaxY));
+    if (frameMaxX > frameMinX && frameMaxY > frameMinY) {
+      ScreenHelper.drawRectangle(
+          poseStack,
+          frameMinX,
+          frameMinY,
+          frameMaxX - frameMinX,
+          frameMaxY - frameMinY,
+          VIEWPORT_COLOR);
+    }
+    ScreenHelper.drawRectangle(poseStack, x, y, size, size, BORDER_COLOR);
+  }
+
+  public boolean isMouseOver(double mouseX, double mouseY) {
+    return mouseX >= x && mouseY >= y && mouseX < x + size && mouseY < y + size;
+  }
+
+  /** @return horizontal skill position shown at the screen coordinate */
+  public float toTreeX(double screenX) {
+    return (float) (screenX - x - size / 2d) / scale + centerX;
+  }
+
+  /** @return vertical skill position shown at the screen coordinate */
+  public float toTreeY(double screenY) {
+    return (float) (screenY - y - size / 2d) / scale + centerY;
+  }
+
+  private float toScreenX(float treeX) {
+    return x + toMinimapX(treeX);
+  }
+
+  private float toScreenY(float treeY) {
+    return y + toMinimapY(treeY);
+  }
+
+  private float toMinimapX(float treeX) {
+    return (treeX - centerX) * scale + size / 2F;
+  }
+
+  private float toMinimapY(float treeY) {
+    return (treeY - centerY) * scale + size / 2F;
+  }
+
+  private void renderTarget(PoseStack poseStack) {
+    if (target == null) return;
+    RenderSystem.setShader(GameRenderer::getPositionTexShader);
+    RenderSystem.setShaderTexture(0, target.getColorTextureId());
+    RenderSystem.setShaderColor(1F, 1F, 1F, 1F);
+    RenderSystem.enableBlend();
+    RenderSystem.defaultBlendFunc();
+    Matrix4f pose = poseStack.last().pose();
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+    // framebuffer rows go from the bottom up
+    builder.vertex(pose, x, y + size, 0).uv(0, 0).endVertex();
+    builder.vertex(pose, x + size, y + size, 0).uv(1, 0).endVertex();
+    builder.vertex(pose, x + size, y, 0).uv(1, 1).endVertex();
+    builder.vertex(pose, x, y, 0).uv(0, 1).endVertex();
+    BufferUploader.drawWithShader(builder.end());
+  }
+
+  private void redraw(
+      Collection<SkillButton> buttons, List<SkillConnection> connections, int pixelSize) {
+    updateBounds(buttons);
+    if (target == null) {
+      target = new TextureTarget(pixelSize, pixelSize, false, Minecraft.ON_OSX);
+    } else if (target.width != pixelSize) {
+      target.resize(pixelSize, pixelSize, Minecraft.ON_OSX);
+    }
+    target.setClearColor(0F, 0F, 0F, 0F);
+    target.clear(Minecraft.ON_OSX);
+    target.bindWrite(true);
+    Matrix4f projection = RenderSystem.getProjectionMatrix();
+    RenderSystem.setProjectionMatrix(Matrix4f.orthographic(0, size, 0, size, 1000F, 3000F));
+    PoseStack modelViewStack = RenderSystem.getModelViewStack();
+    modelViewStack.pushPose();
+    modelViewStack.setIdentity();
+    modelViewStack.translate(0, 0, -2000);
+    RenderSystem.applyModelViewMatrix();
+    Matrix4f identity = new Matrix4f();
+    identity.setIdentity();
+    BufferBuilder builder = Tesselator.getInstance().getBuilder();
+    builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+    for (SkillConnection connection : connections) {
+      PassiveSkill skill1 = connection.getFirstButton().skill;
+      PassiveSkill skill2 = connection.getSecondButton().skill;
+      boolean highlighted =
+          connection.getFirstButton().highlighted && connection.getSecondButton().highlighted;
+      SkillConnectionMesh.addLine(
+          builder,
+          identity,
+          toMinimapX(skill1.getPositionX()),
+          toMinimapY(skill1.getPositionY()),
+          toMinimapX(skill2.getPositionX()),
+          toMinimapY(skill2.getPositionY()),
+          0.5F,
+          highlighted ? HIGHLIGHTED_CONNECTION_COLOR : CONNECTION_COLOR);
+    }
+    for (SkillButton button : buttons) {
+      PassiveSkill skill = button.skill;
+      float dotSize = Math.max(1.5F, skill.getButtonSize() * scale);
+      int color = SkillDotBatch.getColor(button, 0.5F);
+      float dotX = toMinimapX(skill.getPositionX());
+      float dotY = toMinimapY(skill.getPositionY());
+      SkillDotBatch.addDot(builder, identity, dotX, dotY, dotSize, color);
+    }
+    SkillDotBatch.draw(builder);
+    modelViewStack.popPose();
+    RenderSystem.applyModelViewMatrix();
+    RenderSystem.setProjectionMatrix(projection);
+    Minecraft.getInstance().getMainRenderTarget().bindWrite(true);
+    dirty = false;
+  }
+
+  /** Fits the tree into the minimap, keeping its proportions. */
+  private void updateBounds(Collection<SkillButton> buttons) {
+    float minX = Float.MAX_VALUE;
+    float minY = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE;
+    float maxY = -Float.MAX_VALUE;
+    for (SkillButton button : buttons) {
+      minX = Math.min(minX, button.skill.getPositionX());
+      minY = Math.min(minY, button.skill.getPositionY());
+      maxX = Math.max(maxX, button.skill.getPositionX());
+      maxY = Math.max(maxY, button.skill.getPositionY());
+    }
+    if (buttons.isEmpty()) minX = minY = maxX = maxY = 0;
+    centerX = (minX + maxX) / 2;
+    centerY = (minY + maxY) / 2;
+    float extent = Math.max(1F, Math.max(maxX - minX, maxY - minY));
+    scale = (size - PADDING * 2) / extent;
+  }
+
+  private int getPixelSize() {
+    return (int) (size * Minecraft.getInstance().getWindow().getGuiScale());
+  }
+
+  @Override
+  public void close() {
+    if (target != null) target.destroyBuffers();
+    target = null;
+    dirty = true;
+  }
+}
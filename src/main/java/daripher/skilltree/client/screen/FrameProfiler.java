@@ -0,0 +1,189 @@
+package daripher.skilltree.client.screen;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.annotation.Nullable;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiComponent;
+
+/**
+ * Measures how long the rendering phases of a skill tree screen take, how many draw calls they
+ * make and how much the frame allocates. The last {@link #SAMPLES} frames are kept in a ring
+ * buffer and shown as averages, maximums and a frame time graph. Measuring only happens while the
+ * overlay is toggled on.
+ */
+public class FrameProfiler {
+  private static final int SAMPLES = 120;
+  private static final int TEXT_COLOR = 0xFFFFFF;
+  private static final int GRAPH_COLOR = 0xFF7FE5FF;
+  private static final int BACKGROUND_COLOR = 0xCC000000;
+  private static final @Nullable com.sun.management.ThreadMXBean ALLOCATION_COUNTER =
+      getAllocationCounter();
+  private static boolean enabled;
+  private static int drawCalls;
+  private final long[][] phaseNanos = new long[SAMPLES][Phase.values().length];
+  private final int[][] phaseDrawCalls = new int[SAMPLES][Phase.values().length];
+  private final long[] allocatedBytes = new long[SAMPLES];
+  private int frame;
+  private int recordedFrames;
+  private @Nullable Phase phase;
+  private long phaseStart;
+  private int phaseDrawCallsStart;
+  private long frameAllocationStart;
+
+  public static void toggle() {
+    enabled ^= true;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Called before every draw call, the count is only read while a frame is measured. */
+  public static void countDrawCall() {
+    drawCalls++;
+  }
+
+  public void startFrame() {
+    if (!enabled) return;
+    frameAllocationStart = getAllocatedBytes();
+    long[] nanos = phaseNanos[frame];
+    int[] calls = phaseDrawCalls[frame];
+    for (int i = 0; i < nanos.length; i++) {
+      nanos[i] = 0;
+      calls[i] = 0;
+    }
+  }
+
+  /** Ends the current phase, if there is one, and starts measuring the next. */
+  public void startPhase(Phase phase) {
+    if (!enabled) return;
+    endPhase();
+    this.phase = phase;
+    phaseDrawCallsStart = drawCalls;
+    phaseStart = System.nanoTime();
+  }
+
+  public void endFrame() {
+    if (!enabled) return;
+    endPhase();
+    allocatedBytes[frame] = getAllocatedBytes() - frameAllocationStart;
+    frame = (frame + 1) % SAMPLES;
+    recordedFrames = Math.min(recordedFrames + 1, SAMPLES);
+  }
+
+  private void endPhase() {
+    if (phase == null) return;
+    phaseNanos[frame][phase.ordinal()] += System.nanoTime() - phaseStart;
+    phaseDrawCalls[frame][phase.ordinal()] += drawCalls - phaseDrawCallsStart;
+    phase = null;
+  }
+
+  public void render(PoseStack poseStack, Font font, int x, int y) {
+    if (!enabled || recordedFrames == 0) return;
+    int lineHeight = font.lineHeight + 1;
+    int lines = Phase.values().length + 3;
+    int width = 200;
+    int graphHeight = 30;
+    int height = lines * lineHeight + graphHeight + 8;
+    GuiComponent.fill(poseStack, x, y, x + width, y + height, BACKGROUND_COLOR);
+    int textX = x + 4;
+    int textY = y + 4;
+    font.draw(poseStack, "phase: avg / max ms, draw calls", textX, textY, TEXT_COLOR);
+    textY += lineHeight;
+    long totalNanos = 0;
+    long maxFrameNanos = 0;
+    int totalDrawCalls = 0;
+    for (Phase phase : Phase.values()) {
+      long phaseTotal = 0;
+      long phaseMax = 0;
+      int calls = 0;
+      for (int i = 0; i < recordedFrames; i++) {
+        long nanos = phaseNanos[i][phase.ordinal()];
+        phaseTotal += nanos;
+        phaseMax = Math.max(phaseMax, nanos);
+        calls += phaseDrawCalls[i][phase.ordinal()];
+      }
+      totalNanos += phaseTotal;
+      totalDrawCalls += calls;
+      String line =
+          String.format(
+              "%s: %.3f / %.3f, %d",
+              phase.name,
+              phaseTotal / 1e6 / recordedFrames,
+              phaseMax / 1e6,
+              calls / recordedFrames);
+      font.draw(poseStack, line, textX, textY, TEXT_COLOR);
+      textY += lineHeight;
+    }
+    long[] frameNanos = new long[recordedFrames];
+    long totalAllocated = 0;
+    for (int i = 0; i < recordedFrames; i++) {
+      for (long nanos : phaseNanos[i]) frameNanos[i] += nanos;
+      maxFrameNanos = Math.max(maxFrameNanos, frameNanos[i]);
+      totalAllocated += allocatedBytes[i];
+    }
+    String total =
+        String.format(
+            "total: %.3f / %.3f, %d",
+            totalNanos / 1e6 / recordedFrames,
+            maxFrameNanos / 1e6,
+            totalDrawCalls / recordedFrames);
+    font.draw(poseStack, total, textX, textY, TEXT_COLOR);
+    textY += lineHeight;
+    float kilobytes = totalAllocated / 1024F / recordedFrames;
+    String allocated =
+        ALLOCATION_COUNTER == null
+            ? "allocated: unavailable"
+            : String.format("allocated: %.1f KB per frame", kilobytes);
+    font.draw(poseStack, allocated, textX, textY, TEXT_COLOR);
+    textY += lineHeight + 2;
+    renderGraph(poseStack, frameNanos, maxFrameNanos, textX, textY, width - 8, graphHeight);
+  }
+
+  /** Draws frame times from the oldest to the newest, scaled to the slowest frame. */
+  private void renderGraph(
+      PoseStack poseStack, long[] frameNanos, long maxNanos, int x, int y, int width, int height) {
+    if (maxNanos == 0) return;
+    float columnWidth = (float) width / SAMPLES;
+    int oldest = recordedFrames < SAMPLES ? 0 : frame;
+    for (int i = 0; i < recordedFrames; i++) {
+      long nanos = frameNanos[(oldest + i) % SAMPLES];
+      int columnHeight = (int) Math.max(1, nanos * height / maxNanos);
+      int columnX = x + (int) (i * columnWidth);
+      int columnMaxX = x + (int) ((i + 1) * columnWidth);
+      if (columnMaxX == columnX) columnMaxX++;
+      int columnY = y + height - columnHeight;
+      GuiComponent.fill(poseStack, columnX, columnY, columnMaxX, y + height, GRAPH_COLOR);
+    }
+  }
+
+  private static long getAllocatedBytes() {
+    if (ALLOCATION_COUNTER == null) return 0;
+    return ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static @Nullable com.sun.management.ThreadMXBean getAllocationCounter() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (!(threadBean instanceof com.sun.management.ThreadMXBean allocationCounter)) return null;
+    if (!allocationCounter.isThreadAllocatedMemorySupported()) return null;
+    allocationCounter.setThreadAllocatedMemoryEnabled(true);
+    return allocationCounter;
+  }
+
+  public enum Phase {
+    BACKGROUND("background"),
+    CONNECTIONS("connections"),
+    SKILLS("skills"),
+    OVERLAY("overlay"),
+    WIDGETS("widgets"),
+    TOOLTIP("tooltip");
+
+    private final String name;
+
+    Phase(String name) {
+      this.name = name;
+    }
+  }
+}
@@ -3,8 +3,8 @@ package daripher.skilltree.client.screen;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.Tesselator;
+import daripher.skilltree.client.tooltip.SkillTooltipCache;
 import daripher.skilltree.client.widget.SkillButton;
-import java.util.List;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Font;
 import net.minecraft.client.gui.GuiComponent;
@@ -12,8 +12,8 @@ import net.minecraft.client.gui.components.Button;
 import net.minecraft.client.renderer.GameRenderer;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.entity.ItemRenderer;
-import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.FormattedCharSequence;
 import net.minecraft.util.Mth;
 
 public class ScreenHelper {
@@ -68,6 +68,24 @@ public class ScreenHelper {
     return (float) Mth.atan2(y2 - y1, x2 - x1);
   }
 
+  /**
+   * Even-odd test, counts how many polygon edges a ray from the point crosses.
+   *
+   * @param points {@code x} and {@code y} of the polygon vertices after each other
+   * @param count number of vertices
+   */
+  public static boolean isPointInPolygon(float[] points, int count, float x, float y) {
+    boolean inside = false;
+    for (int i = 0, j = count - 1; i < count; j = i++) {
+      float x1 = points[i * 2];
+      float y1 = points[i * 2 + 1];
+      float x2 = points[j * 2];
+      float y2 = points[j * 2 + 1];
+      if ((y1 > y) != (y2 > y) && x < (x2 - x1) * (y - y1) / (y2 - y1) + x1) inside = !inside;
+    }
+    return inside;
+  }
+
   public static void renderSkillTooltip(
       SkillButton button,
       PoseStack poseStack,
@@ -77,16 +95,10 @@ public class ScreenHelper {
       int height,
       ItemRenderer itemRenderer) {
     Font font = Minecraft.getInstance().font;
-    List<MutableComponent> tooltip = button.getTooltip();
-    if (tooltip.isEmpty()) return;
-    int tooltipWidth = 0;
-    int tooltipHeight = tooltip.size() == 1 ? 8 : 10;
-    for (MutableComponent component : tooltip) {
-      int k = font.width(component);
-      if (k > tooltipWidth) tooltipWidth = k;
-      tooltipHeight += font.lineHeight;
-    }
-    tooltipWidth += 42;
+    SkillTooltipCache.Layout layout = SkillTooltipCache.getLayout(button);
+    if (layout.isEmpty()) return;
+    int tooltipWidth = layout.width();
+    int tooltipHeight = layout.height();
     float tooltipX = x + 12;
     float tooltipY = y - 12;
     if (tooltipX + tooltipWidth > width) {
@@ -117,11 +129,11 @@ public class ScreenHelper {
       centerX += partWidth;
       centerWidth -= partWidth;
     }
-    MutableComponent title = tooltip.remove(0);
-    GuiComponent.drawCenteredString(poseStack, font, title, tooltipWidth / 2, textY, 0xFFFFFF);
+    int titleX = tooltipWidth / 2 - layout.titleWidth() / 2;
+    font.drawShadow(poseStack, layout.title(), titleX, textY, 0xFFFFFF);
     textY += 17;
-    for (MutableComponent component : tooltip) {
-      font.draw(poseStack, component, textX, textY, 0xFFFFFF);
+    for (FormattedCharSequence line : layout.lines()) {
+      font.draw(poseStack, line, textX, textY, 0xFFFFFF);
       textY += font.lineHeight + 1;
     }
     buffer.endBatch();
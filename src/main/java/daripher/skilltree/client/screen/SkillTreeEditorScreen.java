@@ -1,16 +1,32 @@
 package daripher.skilltree.client.screen;
 
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
 import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector3f;
 import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.client.init.PSTKeybinds;
+import daripher.skilltree.client.render.SkillConnectionMesh;
+import daripher.skilltree.client.render.SkillDotBatch;
+import daripher.skilltree.client.skill.DatapackExporter;
+import daripher.skilltree.client.skill.EditorHistory;
+import daripher.skilltree.client.skill.ForceDirectedLayout;
+import daripher.skilltree.client.skill.SkillTransforms;
 import daripher.skilltree.client.skill.SkillTreeClientData;
+import daripher.skilltree.client.skill.SkillTreeValidator;
 import daripher.skilltree.client.widget.*;
 import daripher.skilltree.client.widget.Button;
 import daripher.skilltree.skill.PassiveSkill;
 import daripher.skilltree.skill.PassiveSkillTree;
+import daripher.skilltree.skill.SkillGraph;
 import daripher.skilltree.skill.bonus.player.AttributeBonus;
 import daripher.skilltree.skill.bonus.SkillBonus;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -18,10 +34,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.components.*;
 import net.minecraft.client.gui.components.events.GuiEventListener;
@@ -37,11 +55,32 @@ import org.jetbrains.annotations.NotNull;
 import org.lwjgl.glfw.GLFW;
 
 public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
+  private static final int GRID_CELL_SIZE = 64;
+  private static final int SELECTION_AREA_COLOR = 0x3332FF00;
+  private static final int SELECTION_BORDER_COLOR = 0xAA32FF00;
+  private static final long EXPORT_MESSAGE_MILLIS = 5000;
+  private static final int ISSUES_PANEL_X = 2;
+  private static final int ISSUES_PANEL_Y = 20;
+  private static final int ISSUES_PANEL_WIDTH = 200;
   private final Map<ResourceLocation, SkillButton> skillButtons = new HashMap<>();
   private final List<SkillConnection> skillConnections = new ArrayList<>();
   private final List<SkillConnection> gatewayConnections = new ArrayList<>();
   private final Set<ResourceLocation> selectedSkills = new HashSet<>();
+  private final FrameProfiler frameProfiler = new FrameProfiler();
+  private final SpatialGrid<SkillButton> skillsGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+  private final FloatArrayList lassoPoints = new FloatArrayList();
   private final PassiveSkillTree skillTree;
+  private final EditorHistory history;
+  private final SkillTreeValidator validator;
+  private @Nullable ForceDirectedLayout layout;
+  private @Nullable DatapackExporter exporter;
+  private long exportFinishTime;
+  private @Nullable SelectionMode selectionMode;
+  private boolean draggingSelectedSkills;
+  private float selectionStartX;
+  private float selectionStartY;
+  private float selectionEndX;
+  private float selectionEndY;
   protected double scrollSpeedX;
   protected double scrollSpeedY;
   protected double scrollX;
@@ -58,6 +97,8 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
   public SkillTreeEditorScreen(ResourceLocation skillTreeId) {
     super(Component.empty());
     this.skillTree = SkillTreeClientData.getOrCreateEditorTree(skillTreeId);
+    this.history = new EditorHistory(skillTree);
+    this.validator = new SkillTreeValidator(skillTree);
     this.minecraft = Minecraft.getInstance();
   }
 
@@ -69,6 +110,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     maxScrollY -= height / 2 - 350;
     if (maxScrollX < 0) maxScrollX = 0;
     if (maxScrollY < 0) maxScrollY = 0;
+    updateSkillsGrid();
     addSkillConnections();
     addGatewayConnections();
     addToolButtons();
@@ -76,13 +118,27 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
 
   @Override
   public void render(@NotNull PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
+    frameProfiler.startFrame();
+    frameProfiler.startPhase(FrameProfiler.Phase.BACKGROUND);
     updateScreen(partialTick);
+    updateLayout();
     renderBackground(poseStack);
+    frameProfiler.startPhase(FrameProfiler.Phase.CONNECTIONS);
     renderConnections(poseStack, mouseX, mouseY);
+    frameProfiler.startPhase(FrameProfiler.Phase.SKILLS);
     renderSkills(poseStack, mouseX, mouseY, partialTick);
+    frameProfiler.startPhase(FrameProfiler.Phase.OVERLAY);
     renderOverlay(poseStack);
+    frameProfiler.startPhase(FrameProfiler.Phase.WIDGETS);
     renderWidgets(poseStack, mouseX, mouseY, partialTick);
+    renderIssuesPanel(poseStack, mouseX, mouseY);
+    renderSelectionArea(poseStack);
+    frameProfiler.startPhase(FrameProfiler.Phase.TOOLTIP);
     renderSkillTooltip(poseStack, mouseX, mouseY, partialTick);
+    renderLayoutProgress(poseStack);
+    renderExportProgress(poseStack);
+    frameProfiler.endFrame();
+    frameProfiler.render(poseStack, font, 2, 2);
     prevMouseX = mouseX;
     prevMouseY = mouseY;
   }
@@ -97,8 +153,137 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     }
   }
 
+  /** Lists validation issues, issues of a skill can be clicked to select the skill. */
+  private void renderIssuesPanel(PoseStack poseStack, int mouseX, int mouseY) {
+    List<SkillTreeValidator.Issue> issues = validator.getIssues();
+    int visibleIssues = getVisibleIssuesCount(issues);
+    boolean hiddenIssues = visibleIssues < issues.size();
+    int lineHeight = font.lineHeight + 2;
+    int lines = 1 + visibleIssues + (hiddenIssues ? 1 : 0);
+    int x = ISSUES_PANEL_X;
+    int y = ISSUES_PANEL_Y;
+    fill(poseStack, x, y, x + ISSUES_PANEL_WIDTH, y + lines * lineHeight + 4, 0xDD000000);
+    x += 4;
+    y += 3;
+    if (issues.isEmpty()) {
+      font.draw(poseStack, "No issues found", x, y, 0x55FF55);
+      return;
+    }
+    font.draw(poseStack, "Issues: " + issues.size(), x, y, 0xFF5555);
+    SkillTreeValidator.Issue issueAtMouse = getIssueAt(mouseX, mouseY);
+    for (int i = 0; i < visibleIssues; i++) {
+      y += lineHeight;
+      SkillTreeValidator.Issue issue = issues.get(i);
+      String text = font.plainSubstrByWidth(issue.getDescription(), ISSUES_PANEL_WIDTH - 8);
+      font.draw(poseStack, text, x, y, issue == issueAtMouse ? 0xFFFF55 : 0xFFFFFF);
+    }
+    if (hiddenIssues) {
+      y += lineHeight;
+      font.draw(poseStack, "... and " + (issues.size() - visibleIssues) + " more", x, y, 0xAAAAAA);
+    }
+  }
+
+  private int getVisibleIssuesCount(List<SkillTreeValidator.Issue> issues) {
+    int maxLines = (height - ISSUES_PANEL_Y - 40) / (font.lineHeight + 2) - 2;
+    return Math.max(0, Math.min(issues.size(), maxLines));
+  }
+
+  /** @return clicked issue if it belongs to a skill that can be selected */
+  private @Nullable SkillTreeValidator.Issue getIssueAt(double mouseX, double mouseY) {
+    if (mouseX < ISSUES_PANEL_X || mouseX >= ISSUES_PANEL_X + ISSUES_PANEL_WIDTH) return null;
+    List<SkillTreeValidator.Issue> issues = validator.getIssues();
+    int line = (int) (mouseY - ISSUES_PANEL_Y - 3) / (font.lineHeight + 2) - 1;
+    if (mouseY < ISSUES_PANEL_Y + 3 || line < 0 || line >= getVisibleIssuesCount(issues)) {
+      return null;
+    }
+    SkillTreeValidator.Issue issue = issues.get(line);
+    if (issue.skillId() == null || !skillButtons.containsKey(issue.skillId())) return null;
+    return issue;
+  }
+
+  private boolean isMouseOverIssuesPanel(double mouseX, double mouseY) {
+    List<SkillTreeValidator.Issue> issues = validator.getIssues();
+    int visibleIssues = getVisibleIssuesCount(issues);
+    int lines = 1 + visibleIssues + (visibleIssues < issues.size() ? 1 : 0);
+    int panelHeight = lines * (font.lineHeight + 2) + 4;
+    return mouseX >= ISSUES_PANEL_X
+        && mouseY >= ISSUES_PANEL_Y
+        && mouseX < ISSUES_PANEL_X + ISSUES_PANEL_WIDTH
+        && mouseY < ISSUES_PANEL_Y + panelHeight;
+  }
+
+  /** Selects the skill and scrolls it into the middle of the screen. */
+  private void focusSkill(ResourceLocation skillId) {
+    PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+    selectedSkills.clear();
+    selectedSkills.add(skillId);
+    scrollX = -skill.getPositionX() * zoom;
+    scrollY = -skill.getPositionY() * zoom;
+    scrollSpeedX = 0;
+    scrollSpeedY = 0;
+    rebuildWidgets();
+  }
+
+  private void renderSelectionArea(PoseStack poseStack) {
+    if (selectionMode == null) return;
+    poseStack.pushPose();
+    poseStack.translate(scrollX, scrollY, 0);
+    if (selectionMode == SelectionMode.RECTANGLE) {
+      int minX = (int) Math.min(selectionStartX, selectionEndX);
+      int minY = (int) Math.min(selectionStartY, selectionEndY);
+      int maxX = (int) Math.max(selectionStartX, selectionEndX);
+      int maxY = (int) Math.max(selectionStartY, selectionEndY);
+      fill(poseStack, minX, minY, maxX, maxY, SELECTION_AREA_COLOR);
+      ScreenHelper.drawRectangle(
+          poseStack, minX, minY, maxX - minX, maxY - minY, SELECTION_BORDER_COLOR);
+    } else {
+      Matrix4f pose = poseStack.last().pose();
+      BufferBuilder builder = Tesselator.getInstance().getBuilder();
+      builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+      float[] points = lassoPoints.elements();
+      int count = lassoPoints.size() / 2;
+      for (int i = 0, j = count - 1; i < count; j = i++) {
+        float x1 = points[j * 2];
+        float y1 = points[j * 2 + 1];
+        float x2 = points[i * 2];
+        float y2 = points[i * 2 + 1];
+        SkillConnectionMesh.addLine(builder, pose, x1, y1, x2, y2, 1F, SELECTION_BORDER_COLOR);
+      }
+      SkillDotBatch.draw(builder);
+    }
+    poseStack.popPose();
+  }
+
+  private void renderLayoutProgress(PoseStack poseStack) {
+    if (layout == null) return;
+    int progress = (int) (layout.getProgress() * 100);
+    String text = "Laying out skills: " + progress + "% (ESC to cancel)";
+    drawCenteredString(poseStack, font, text, width / 2, height - 20, 0xFFFFFF);
+  }
+
+  /** Shows the export progress, and the result for a few seconds after the export is done. */
+  private void renderExportProgress(PoseStack poseStack) {
+    if (exporter == null) return;
+    String text;
+    if (!exporter.isFinished()) {
+      text = "Exporting datapack: " + (int) (exporter.getProgress() * 100) + "%";
+    } else {
+      if (exportFinishTime == 0) exportFinishTime = Util.getMillis();
+      if (Util.getMillis() - exportFinishTime > EXPORT_MESSAGE_MILLIS) {
+        exporter = null;
+        return;
+      }
+      text =
+          exporter.hasFailed()
+              ? "Couldn't export datapack, see the log for details"
+              : "Exported datapack to " + exporter.getOutput().getFileName();
+    }
+    drawCenteredString(poseStack, font, text, width / 2, height - 32, 0xFFFFFF);
+  }
+
   private void renderSkillTooltip(PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
     if (getWidgetAt(mouseX, mouseY).isPresent()) return;
+    if (isMouseOverIssuesPanel(mouseX, mouseY)) return;
     SkillButton skillAtMouse = getSkillAt(mouseX, mouseY);
     float tooltipX = ((prevMouseX - mouseX) * partialTick);
     float tooltipY = ((prevMouseY - mouseY) * partialTick);
@@ -136,14 +321,113 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
 
   @Override
   public boolean mouseClicked(double mouseX, double mouseY, int button) {
+    if (layout != null) return false;
+    SkillTreeValidator.Issue issue = getIssueAt(mouseX, mouseY);
+    if (issue != null && issue.skillId() != null) {
+      focusSkill(issue.skillId());
+      return true;
+    }
+    if (isMouseOverIssuesPanel(mouseX, mouseY)) return true;
     if (clickedOnEditBox(mouseX, mouseY, button)) return true;
     Optional<? extends GuiEventListener> widget = getWidgetAt(mouseX, mouseY);
-    if (widget.isPresent()) return widget.get().mouseClicked(mouseX, mouseY, button);
+    if (widget.isPresent()) {
+      boolean clicked = widget.get().mouseClicked(mouseX, mouseY, button);
+      commitSelectedSkillEdits(widget.get());
+      return clicked;
+    }
     SkillButton skillAtMouse = getSkillAt(mouseX, mouseY);
+    if (button == 0 && skillAtMouse != null && hasControlDown()) {
+      if (selectedSkills.contains(skillAtMouse.skill.getId())) {
+        draggingSelectedSkills = true;
+        return true;
+      }
+    }
+    if (button == 0 && skillAtMouse == null && (hasShiftDown() || hasAltDown())) {
+      SelectionMode mode = hasAltDown() ? SelectionMode.LASSO : SelectionMode.RECTANGLE;
+      startAreaSelection(mouseX, mouseY, mode);
+      return true;
+    }
     if (skillAtMouse == null) return false;
     return skillAtMouse.mouseClicked(skillAtMouse.x + 1, skillAtMouse.y + 1, button);
   }
 
+  @Override
+  public boolean mouseReleased(double mouseX, double mouseY, int button) {
+    if (button == 0 && draggingSelectedSkills) {
+      draggingSelectedSkills = false;
+      selectedSkillsMoved();
+      return true;
+    }
+    if (button == 0 && selectionMode != null) {
+      finishAreaSelection();
+      return true;
+    }
+    return super.mouseReleased(mouseX, mouseY, button);
+  }
+
+  private void startAreaSelection(double mouseX, double mouseY, SelectionMode mode) {
+    selectionMode = mode;
+    selectionStartX = selectionEndX = (float) (mouseX - scrollX);
+    selectionStartY = selectionEndY = (float) (mouseY - scrollY);
+    lassoPoints.clear();
+    lassoPoints.add(selectionStartX);
+    lassoPoints.add(selectionStartY);
+  }
+
+  private void updateAreaSelection(double mouseX, double mouseY) {
+    selectionEndX = (float) (mouseX - scrollX);
+    selectionEndY = (float) (mouseY - scrollY);
+    if (selectionMode != SelectionMode.LASSO) return;
+    int last = lassoPoints.size() - 2;
+    float lastX = lassoPoints.getFloat(last);
+    float lastY = lassoPoints.getFloat(last + 1);
+    if (ScreenHelper.getDistanceBetweenPoints(lastX, lastY, selectionEndX, selectionEndY) < 2F) {
+      return;
+    }
+    lassoPoints.add(selectionEndX);
+    lassoPoints.add(selectionEndY);
+  }
+
+  /** Adds skills in the area to the selection, only skills in the covered grid cells are tested. */
+  private void finishAreaSelection() {
+    if (selectionMode == SelectionMode.RECTANGLE) {
+      float minX = Math.min(selectionStartX, selectionEndX);
+      float minY = Math.min(selectionStartY, selectionEndY);
+      float maxX = Math.max(selectionStartX, selectionEndX);
+      float maxY = Math.max(selectionStartY, selectionEndY);
+      skillsGrid.forEachIntersecting(
+          minX, minY, maxX, maxY, button -> selectedSkills.add(button.skill.getId()));
+    } else if (lassoPoints.size() >= 6) {
+      float[] points = lassoPoints.elements();
+      int count = lassoPoints.size() / 2;
+      float minX = Float.MAX_VALUE;
+      float minY = Float.MAX_VALUE;
+      float maxX = -Float.MAX_VALUE;
+      float maxY = -Float.MAX_VALUE;
+      for (int i = 0; i < count; i++) {
+        minX = Math.min(minX, points[i * 2]);
+        minY = Math.min(minY, points[i * 2 + 1]);
+        maxX = Math.max(maxX, points[i * 2]);
+        maxY = Math.max(maxY, points[i * 2 + 1]);
+      }
+      skillsGrid.forEachIntersecting(
+          minX,
+          minY,
+          maxX,
+          maxY,
+          button -> {
+            float centerX = (float) (button.x + button.getWidth() / 2d);
+            float centerY = (float) (button.y + button.getHeight() / 2d);
+            if (ScreenHelper.isPointInPolygon(points, count, centerX, centerY)) {
+              selectedSkills.add(button.skill.getId());
+            }
+          });
+    }
+    selectionMode = null;
+    lassoPoints.clear();
+    rebuildWidgets();
+  }
+
   private boolean clickedOnEditBox(double mouseX, double mouseY, int button) {
     return editBoxesStream().anyMatch(b -> b.mouseClicked(mouseX, mouseY, button));
   }
@@ -154,6 +438,17 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
 
   @Override
   public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+    if (PSTKeybinds.DEBUG_OVERLAY_KEY.matches(keyCode, scanCode)) {
+      FrameProfiler.toggle();
+      return true;
+    }
+    if (layout != null) {
+      if (keyCode == GLFW.GLFW_KEY_ESCAPE) {
+        cancelLayout();
+        closeOnEsc = false;
+      }
+      return true;
+    }
     if (keyCode == GLFW.GLFW_KEY_ESCAPE && !selectedSkills.isEmpty()) {
       selectedSkills.clear();
       rebuildWidgets();
@@ -169,12 +464,114 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
       rebuildWidgets();
       return true;
     }
+    if (keyCode == GLFW.GLFW_KEY_Z && Screen.hasControlDown()) {
+      historyApplied(Screen.hasShiftDown() ? history.redo() : history.undo());
+      return true;
+    }
+    if (keyCode == GLFW.GLFW_KEY_Y && Screen.hasControlDown()) {
+      historyApplied(history.redo());
+      return true;
+    }
+    if (keyCode == GLFW.GLFW_KEY_L && Screen.hasControlDown()) {
+      startLayout();
+      return true;
+    }
+    if (keyCode == GLFW.GLFW_KEY_E && Screen.hasControlDown()) {
+      startExport(Screen.hasShiftDown());
+      return true;
+    }
     if (keyPressedOnTextBox(keyCode, scanCode, modifiers)) {
+      commitSelectedSkillEdits(getFocusedEditBox());
       return true;
     }
     return super.keyPressed(keyCode, scanCode, modifiers);
   }
 
+  /** Drops skills that no longer exist from the selection and rebuilds the widgets once. */
+  private void historyApplied(Set<ResourceLocation> touchedSkills) {
+    if (touchedSkills.isEmpty()) return;
+    validator.update(touchedSkills);
+    selectedSkills.removeIf(id -> !skillTree.getSkillIds().contains(id));
+    rebuildWidgets();
+  }
+
+  /**
+   * Records changes made to selected skills by the editor widgets. Changes made with the same
+   * widget in quick succession, like typing a value, are merged into one edit.
+   */
+  private void commitSelectedSkillEdits(@Nullable Object widget) {
+    if (selectedSkills.isEmpty()) return;
+    skillsEdited(widget, selectedSkills);
+  }
+
+  /** Records the edit in the history and validates the edited skills again if they changed. */
+  private void skillsEdited(@Nullable Object mergeKey, Collection<ResourceLocation> skillIds) {
+    if (history.commit(mergeKey, skillIds)) validator.update(skillIds);
+  }
+
+  /**
+   * Exports all editor data into a datapack zip.
+   *
+   * @param includeCatalog whether to add the binary skill catalog next to the json files
+   */
+  private void startExport(boolean includeCatalog) {
+    if (exporter != null && !exporter.isFinished()) return;
+    exporter = DatapackExporter.start(includeCatalog);
+    exportFinishTime = 0;
+  }
+
+  /** Lays out selected skills, or the whole tree if nothing is selected. */
+  private void startLayout() {
+    if (layout != null) return;
+    Set<ResourceLocation> movableSkills =
+        new HashSet<>(selectedSkills.isEmpty() ? skillTree.getSkillIds() : selectedSkills);
+    layout = ForceDirectedLayout.start(getTreeSkills().toList(), movableSkills);
+  }
+
+  /** Moves skills to the latest positions of the running layout and commits the final ones. */
+  private void updateLayout() {
+    if (layout == null) return;
+    boolean finished = layout.isFinished();
+    float[] positions = layout.pollPositions();
+    if (positions != null) setLayoutPositions(layout, positions);
+    if (!finished) return;
+    SkillGraph graph = layout.getGraph();
+    List<ResourceLocation> movedSkills = new ArrayList<>();
+    for (int i = 0; i < graph.size(); i++) {
+      if (!layout.isMovable(i)) continue;
+      PassiveSkill skill = graph.getSkill(i);
+      SkillTreeClientData.saveEditorSkill(skill);
+      movedSkills.add(skill.getId());
+    }
+    skillsEdited(null, movedSkills);
+    layout = null;
+    rebuildWidgets();
+  }
+
+  private void cancelLayout() {
+    if (layout == null) return;
+    layout.cancel();
+    setLayoutPositions(layout, layout.getStartPositions());
+    layout = null;
+    rebuildWidgets();
+  }
+
+  private void setLayoutPositions(ForceDirectedLayout layout, float[] positions) {
+    SkillGraph graph = layout.getGraph();
+    for (int i = 0; i < graph.size(); i++) {
+      if (!layout.isMovable(i)) continue;
+      PassiveSkill skill = graph.getSkill(i);
+      skill.setPosition(positions[i * 2], positions[i * 2 + 1]);
+      SkillButton button = skillButtons.get(skill.getId());
+      if (button != null) button.setPosition(getSkillButtonX(skill), getSkillButtonY(skill));
+    }
+    updateSkillsGrid();
+  }
+
+  private @Nullable EditBox getFocusedEditBox() {
+    return editBoxesStream().filter(EditBox::isFocused).findFirst().orElse(null);
+  }
+
   private boolean keyPressedOnTextBox(int keyCode, int scanCode, int modifiers) {
     return editBoxesStream().anyMatch(b -> b.keyPressed(keyCode, scanCode, modifiers));
   }
@@ -188,14 +585,32 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     return super.shouldCloseOnEsc();
   }
 
+  @Override
+  public void removed() {
+    cancelLayout();
+    SkillTreeClientData.flushEditorSaves();
+  }
+
   private void deleteSelectedSkills() {
+    Set<ResourceLocation> editedSkills = new HashSet<>(selectedSkills);
+    getTreeSkills()
+        .filter(skill -> !selectedSkills.contains(skill.getId()))
+        .forEach(
+            skill -> {
+              boolean connected = skill.getConnectedSkills().removeAll(selectedSkills);
+              connected |= skill.getConnectedAsGateways().removeAll(selectedSkills);
+              if (!connected) return;
+              SkillTreeClientData.saveEditorSkill(skill);
+              editedSkills.add(skill.getId());
+            });
     getSelectedSkills()
         .forEach(
             skill -> {
               skillTree.getSkillIds().remove(skill.getId());
               SkillTreeClientData.deleteEditorSkill(skill);
-              SkillTreeClientData.saveEditorSkillTree(skillTree);
             });
+    SkillTreeClientData.saveEditorSkillTree(skillTree);
+    skillsEdited(null, editedSkills);
     selectedSkills.clear();
     rebuildWidgets();
   }
@@ -208,7 +623,9 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
 
   @Override
   public boolean charTyped(char character, int keyCode) {
+    if (layout != null) return false;
     editBoxesStream().forEach(b -> b.charTyped(character, keyCode));
+    commitSelectedSkillEdits(getFocusedEditBox());
     return super.charTyped(character, keyCode);
   }
 
@@ -222,20 +639,18 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
   }
 
   private @Nullable SkillButton getSkillAt(double mouseX, double mouseY) {
-    mouseX -= scrollX;
-    mouseY -= scrollY;
+    return skillsGrid.getAt((float) (mouseX - scrollX), (float) (mouseY - scrollY));
+  }
+
+  /** Indexes skill bounds for hit testing and area selection, should follow moved buttons. */
+  private void updateSkillsGrid() {
+    skillsGrid.clear();
     for (SkillButton button : skillButtons.values()) {
-      double skillSize = button.skill.getButtonSize() * zoom;
-      double skillX = button.x + button.getWidth() / 2d - skillSize / 2;
-      double skillY = button.y + button.getHeight() / 2d - skillSize / 2;
-      if (mouseX >= skillX
-          && mouseY >= skillY
-          && mouseX < skillX + skillSize
-          && mouseY < skillY + skillSize) {
-        return button;
-      }
+      float skillSize = button.skill.getButtonSize() * zoom;
+      float skillX = (float) (button.x + button.getWidth() / 2d - skillSize / 2);
+      float skillY = (float) (button.y + button.getHeight() / 2d - skillSize / 2);
+      skillsGrid.add(button, skillX, skillY, skillX + skillSize, skillY + skillSize);
     }
-    return null;
   }
 
   private void addSkillButtons() {
@@ -251,6 +666,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
       addAttributeToolsButtons();
       addButtonToolsButtons();
       addTextureToolsButtons();
+      if (selectedSkills.size() > 1) addTransformToolsButtons();
       addNodeToolsButtons();
     }
     if (selectedSkills.size() == 2) {
@@ -279,10 +695,100 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
       addRenderableWidget(copyButton);
       toolsY += 19;
     }
+    if (selectedSkills.size() > 1) {
+      Button layoutButton = new Button(toolsX, toolsY, 100, 14, Component.literal("Auto Layout"));
+      layoutButton.setPressFunc(b -> startLayout());
+      addRenderableWidget(layoutButton);
+      toolsY += 19;
+    }
     addLabel(toolsX, toolsY, "To remove selected skills press CTRL+DELETE", ChatFormatting.RED);
     toolsY += 19;
   }
 
+  private void addTransformToolsButtons() {
+    addLabel(toolsX, toolsY, "Transform", ChatFormatting.GREEN);
+    toolsY += 19;
+    addLabel(toolsX, toolsY, "• Move", ChatFormatting.GOLD);
+    addLabel(toolsX + 195, toolsY, "• Rotate", ChatFormatting.GOLD);
+    toolsY += 19;
+    NumericTextField moveXEditor = new NumericTextField(font, toolsX, toolsY, 60, 14, 0);
+    addRenderableWidget(moveXEditor);
+    NumericTextField moveYEditor = new NumericTextField(font, toolsX + 65, toolsY, 60, 14, 0);
+    addRenderableWidget(moveYEditor);
+    Button moveButton = new Button(toolsX + 130, toolsY, 60, 14, Component.literal("Move"));
+    moveButton.setPressFunc(
+        b -> {
+          float x = (float) moveXEditor.getNumericValue();
+          float y = (float) moveYEditor.getNumericValue();
+          transformSelectedSkills(skills -> SkillTransforms.translate(skills, x, y));
+        });
+    addRenderableWidget(moveButton);
+    NumericTextField angleEditor = new NumericTextField(font, toolsX + 195, toolsY, 60, 14, 90);
+    addRenderableWidget(angleEditor);
+    Button rotateButton = new Button(toolsX + 260, toolsY, 60, 14, Component.literal("Rotate"));
+    rotateButton.setPressFunc(
+        b -> {
+          float angle = (float) angleEditor.getNumericValue();
+          transformSelectedSkills(skills -> SkillTransforms.rotate(skills, angle));
+        });
+    addRenderableWidget(rotateButton);
+    toolsY += 19;
+    addLabel(toolsX, toolsY, "• Scale", ChatFormatting.GOLD);
+    addLabel(toolsX + 195, toolsY, "• Grid", ChatFormatting.GOLD);
+    toolsY += 19;
+    NumericTextField scaleEditor = new NumericTextField(font, toolsX, toolsY, 60, 14, 1);
+    scaleEditor.setNumericFilter(d -> d > 0);
+    addRenderableWidget(scaleEditor);
+    Button scaleButton = new Button(toolsX + 65, toolsY, 60, 14, Component.literal("Scale"));
+    scaleButton.setPressFunc(
+        b -> {
+          float factor = (float) scaleEditor.getNumericValue();
+          transformSelectedSkills(skills -> SkillTransforms.scale(skills, factor));
+        });
+    addRenderableWidget(scaleButton);
+    NumericTextField gridEditor = new NumericTextField(font, toolsX + 195, toolsY, 60, 14, 8);
+    gridEditor.setNumericFilter(d -> d > 0);
+    addRenderableWidget(gridEditor);
+    Button alignButton = new Button(toolsX + 260, toolsY, 60, 14, Component.literal("Align"));
+    alignButton.setPressFunc(
+        b -> {
+          float gridSize = (float) gridEditor.getNumericValue();
+          transformSelectedSkills(skills -> SkillTransforms.alignToGrid(skills, gridSize));
+        });
+    addRenderableWidget(alignButton);
+    toolsY += 19;
+    Button mirrorXButton = new Button(toolsX, toolsY, 125, 14, Component.literal("Mirror X"));
+    mirrorXButton.setPressFunc(
+        b -> transformSelectedSkills(skills -> SkillTransforms.mirror(skills, true)));
+    addRenderableWidget(mirrorXButton);
+    Button mirrorYButton = new Button(toolsX + 130, toolsY, 125, 14, Component.literal("Mirror Y"));
+    mirrorYButton.setPressFunc(
+        b -> transformSelectedSkills(skills -> SkillTransforms.mirror(skills, false)));
+    addRenderableWidget(mirrorYButton);
+    toolsY += 19;
+  }
+
+  private void transformSelectedSkills(Consumer<List<PassiveSkill>> transform) {
+    transform.accept(getSelectedSkills().toList());
+    selectedSkillsMoved();
+  }
+
+  /** Moves selected skills and their buttons while they are dragged, without saving them. */
+  private void dragSelectedSkills(double dragAmountX, double dragAmountY) {
+    List<PassiveSkill> skills = getSelectedSkills().toList();
+    SkillTransforms.translate(skills, (float) (dragAmountX / zoom), (float) (dragAmountY / zoom));
+    for (PassiveSkill skill : skills) {
+      skillButtons.get(skill.getId()).setPosition(getSkillButtonX(skill), getSkillButtonY(skill));
+    }
+  }
+
+  /** Saves moved skills and records them as one edit, then rebuilds the widgets once. */
+  private void selectedSkillsMoved() {
+    saveSelectedSkills();
+    skillsEdited(null, selectedSkills);
+    rebuildWidgets();
+  }
+
   private void createSelectedSkillCopy(
       NumericTextField angleEditor, NumericTextField distanceEditor, PassiveSkill skill) {
     float angle = (float) (angleEditor.getNumericValue() * Mth.PI / 180F);
@@ -323,6 +829,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     SkillTreeClientData.loadEditorSkill(skill.getId());
     skillTree.getSkillIds().add(skill.getId());
     SkillTreeClientData.saveEditorSkillTree(skillTree);
+    skillsEdited(null, List.of(skill.getId()));
   }
 
   private void createNewSkill(float x, float y, @Nullable PassiveSkill other) {
@@ -338,6 +845,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     SkillTreeClientData.loadEditorSkill(skill.getId());
     skillTree.getSkillIds().add(skill.getId());
     SkillTreeClientData.saveEditorSkillTree(skillTree);
+    skillsEdited(null, List.of(skill.getId()));
   }
 
   private ResourceLocation createNewSkillId() {
@@ -382,6 +890,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     skill.setPosition((float) xPosEditor.getNumericValue(), skill.getPositionY());
     getSelectedSkillButtons()
         .forEach(button -> button.setPosition(getSkillButtonX(skill), getSkillButtonY(skill)));
+    updateSkillsGrid();
     saveSelectedSkills();
   }
 
@@ -389,6 +898,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     skill.setPosition(skill.getPositionX(), (float) yPosEditor.getNumericValue());
     getSelectedSkillButtons()
         .forEach(button -> button.setPosition(getSkillButtonX(skill), getSkillButtonY(skill)));
+    updateSkillsGrid();
     saveSelectedSkills();
   }
 
@@ -396,6 +906,7 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     getSelectedSkills().forEach(skill -> skill.setButtonSize((int) editor.getNumericValue()));
     getSelectedSkillButtons()
         .forEach(button -> button.setButtonSize((int) editor.getNumericValue()));
+    updateSkillsGrid();
     saveSelectedSkills();
   }
 
@@ -582,6 +1093,8 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
       if (SkillTreeClientData.getEditorSkill(connectedSkillId) == null) {
         skill.getConnectedSkills().remove(connectedSkillId);
         SkillTreeClientData.saveEditorSkill(skill);
+        history.refresh(skill.getId());
+        validator.update(List.of(skill.getId()));
         continue;
       }
       connectSkills(skillConnections, skill.getId(), connectedSkillId);
@@ -646,6 +1159,14 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
   public boolean mouseDragged(
       double mouseX, double mouseY, int mouseButton, double dragAmountX, double dragAmountY) {
     if (mouseButton != 0 && mouseButton != 2) return false;
+    if (mouseButton == 0 && draggingSelectedSkills) {
+      dragSelectedSkills(dragAmountX, dragAmountY);
+      return true;
+    }
+    if (mouseButton == 0 && selectionMode != null) {
+      updateAreaSelection(mouseX, mouseY);
+      return true;
+    }
     if (maxScrollX > 0) scrollSpeedX += dragAmountX * 0.25;
     if (maxScrollY > 0) scrollSpeedY += dragAmountY * 0.25;
     return true;
@@ -800,4 +1321,9 @@ public class SkillTreeEditorScreen extends Screen implements SkillTreeEditor {
     if (skill == otherSkill) return true;
     return skill.getButtonSize() == otherSkill.getButtonSize();
   }
+
+  private enum SelectionMode {
+    RECTANGLE,
+    LASSO
+  }
 }
@@ -1,10 +1,15 @@
 package daripher.skilltree.client.screen;
 
-import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.math.Vector3f;
 import daripher.skilltree.capability.skill.IPlayerSkills;
 import daripher.skilltree.capability.skill.PlayerSkillsProvider;
+import daripher.skilltree.client.init.PSTKeybinds;
+import daripher.skilltree.client.render.SkillButtonBatch;
+import daripher.skilltree.client.render.SkillConnectionMesh;
+import daripher.skilltree.client.render.SkillDotBatch;
+import daripher.skilltree.client.render.SkillTreeMinimap;
+import daripher.skilltree.client.skill.SkillBonusMergeIndex;
 import daripher.skilltree.client.skill.SkillTreeClientData;
 import daripher.skilltree.client.widget.*;
 import daripher.skilltree.config.ClientConfig;
@@ -14,8 +19,10 @@ import daripher.skilltree.network.message.GainSkillPointMessage;
 import daripher.skilltree.network.message.LearnSkillMessage;
 import daripher.skilltree.skill.PassiveSkill;
 import daripher.skilltree.skill.PassiveSkillTree;
-import daripher.skilltree.skill.bonus.SkillBonus;
+import daripher.skilltree.skill.SkillGraph;
+import daripher.skilltree.skill.SkillPathfinder;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -33,15 +40,36 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.util.Mth;
 import org.jetbrains.annotations.NotNull;
+import org.lwjgl.glfw.GLFW;
 
 public class SkillTreeScreen extends Screen {
   public static final int BACKGROUND_SIZE = 2048;
+  private static final int GRID_CELL_SIZE = 64;
+  private static final int SKILL_RENDER_MARGIN = 30;
+  // below this zoom skills are drawn as dots and connections as plain lines
+  private static final float LOW_DETAIL_ZOOM = 0.5F;
+  private static final int MINIMAP_SIZE = 96;
   private final Map<ResourceLocation, SkillButton> skillButtons = new HashMap<>();
   private final List<SkillConnection> skillConnections = new ArrayList<>();
   private final List<SkillConnection> gatewayConnections = new ArrayList<>();
-  private final List<ResourceLocation> learnedSkills = new ArrayList<>();
-  private final List<ResourceLocation> newlyLearnedSkills = new ArrayList<>();
+  private final List<SkillConnection> animatedConnections = new ArrayList<>();
+  private final SkillConnectionMesh connectionMesh = new SkillConnectionMesh();
+  private final SkillTreeMinimap minimap = new SkillTreeMinimap(MINIMAP_SIZE);
+  private final FrameProfiler frameProfiler = new FrameProfiler();
+  private final SkillBonusMergeIndex mergedBonuses = new SkillBonusMergeIndex();
+  private final Set<ResourceLocation> learnedSkills = new LinkedHashSet<>();
+  private final Set<ResourceLocation> newlyLearnedSkills = new LinkedHashSet<>();
+  // confirmed skills the server hasn't acknowledged yet, in the order they were sent
+  private final Set<ResourceLocation> sentSkills = new LinkedHashSet<>();
   private final List<SkillButton> startingPoints = new ArrayList<>();
+  private final Set<ResourceLocation> plannedPath = new HashSet<>();
+  private final List<ResourceLocation> searchResults = new ArrayList<>();
+  private final Set<ResourceLocation> searchMatches = new HashSet<>();
+  private final List<SkillButton> visibleSkills = new ArrayList<>();
+  private final List<SkillButton> unbatchedSkills = new ArrayList<>();
+  private final SpatialGrid<SkillButton> skillsGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+  private final SpatialGrid<SkillConnection> gatewayConnectionsGrid =
+      new SpatialGrid<>(GRID_CELL_SIZE);
   private final PassiveSkillTree skillTree;
   public float renderAnimation;
   public int skillPoints;
@@ -52,14 +80,21 @@ public class SkillTreeScreen extends Screen {
   protected int maxScrollX;
   protected int maxScrollY;
   private Button buyButton;
+  private Button confirmButton;
+  private Button cancelButton;
   private Label pointsInfo;
   private ProgressBar progressBar;
   private SkillBonusList statsInfo;
+  private TextField searchField;
+  private String searchQuery = "";
+  private int searchResultIndex = -1;
+  private @Nullable ResourceLocation pathTarget;
   private boolean firstInitDone;
   private boolean showStats;
   private boolean showProgressInNumbers;
   private int prevMouseX;
   private int prevMouseY;
+  private int displayedSkillPoints = -1;
   private float zoom = 1F;
 
   public SkillTreeScreen(ResourceLocation skillTreeId) {
@@ -68,27 +103,6 @@ public class SkillTreeScreen extends Screen {
     this.minecraft = Minecraft.getInstance();
   }
 
-  private static int sortSkillBonusTooltips(Component a, Component b) {
-    String regex = "\\+?-?[0-9]+\\.?[0-9]?%?";
-    String as = a.getString().replaceAll(regex, "");
-    String bs = b.getString().replaceAll(regex, "");
-    return as.compareTo(bs);
-  }
-
-  private static void mergeSkillBonuses(
-      List<SkillBonus<?>> allBonuses, List<SkillBonus<?>> skillBonuses) {
-    skillBonuses.forEach(
-        bonus -> {
-          Optional<SkillBonus<?>> sameBonus = allBonuses.stream().filter(bonus::canMerge).findAny();
-          if (sameBonus.isPresent()) {
-            allBonuses.remove(sameBonus.get());
-            allBonuses.add(sameBonus.get().merge(bonus));
-          } else {
-            allBonuses.add(bonus);
-          }
-        });
-  }
-
   @Override
   public void init() {
     clearWidgets();
@@ -103,14 +117,17 @@ public class SkillTreeScreen extends Screen {
     progressBar.showProgressInNumbers = showProgressInNumbers;
     addRenderableWidget(progressBar);
     addTopButtons();
+    addSearchField();
+    minimap.setPosition(8, 68);
     if (!Config.enable_exp_exchange) {
       progressBar.visible = false;
       buyButton.visible = false;
     }
     if (!firstInitDone) firstInit();
     addSkillButtons();
+    updateSearchResults();
     statsInfo = new SkillBonusList(48, height - 60);
-    statsInfo.setStats(getMergedSkillBonusesTooltips());
+    statsInfo.setStats(mergedBonuses.getTooltips());
     addRenderableWidget(statsInfo);
     maxScrollX -= width / 2 - 80;
     maxScrollY -= height / 2 - 80;
@@ -118,7 +135,93 @@ public class SkillTreeScreen extends Screen {
     if (maxScrollY < 0) maxScrollY = 0;
     addSkillConnections();
     addGatewayConnections();
+    rebuildSpatialIndex();
+    updateSkillStates();
+  }
+
+  /**
+   * Brings highlights, learnable skill animations, connections and the points label up to date
+   * with learned skills, without recreating any widgets.
+   */
+  private void updateSkillStates() {
+    for (SkillButton button : skillButtons.values()) {
+      button.highlighted = isSkillLearned(button.skill);
+      button.animated = false;
+    }
     highlightSkillsThatCanBeLearned();
+    updateAnimatedConnections();
+    connectionMesh.invalidate();
+    minimap.invalidate();
+    confirmButton.active = cancelButton.active = !newlyLearnedSkills.isEmpty();
+    MutableComponent pointsLeft =
+        Component.literal("" + skillPoints).withStyle(Style.EMPTY.withColor(0xFCE266));
+    pointsInfo.setMessage(Component.translatable("widget.skill_points_left", pointsLeft));
+    displayedSkillPoints = skillPoints;
+    updatePlannedPath();
+  }
+
+  private void updateAnimatedConnections() {
+    animatedConnections.clear();
+    for (SkillConnection connection : skillConnections) {
+      SkillButton button1 = connection.getFirstButton();
+      SkillButton button2 = connection.getSecondButton();
+      if (button1.highlighted && button2.highlighted) continue;
+      if (button1.highlighted && button2.animated || button2.highlighted && button1.animated) {
+        animatedConnections.add(connection);
+      }
+    }
+  }
+
+  /**
+   * Indexes skill hit areas and connection bounds, so that hovering and rendering only look at what
+   * is near the mouse or on the screen. Positions depend on zoom, so it has to be rebuilt with the
+   * widgets.
+   */
+  private void rebuildSpatialIndex() {
+    skillsGrid.clear();
+    for (SkillButton button : skillButtons.values()) {
+      float skillSize = button.skill.getButtonSize() * zoom;
+      float skillX = (float) (button.x + button.getWidth() / 2d - skillSize / 2);
+      float skillY = (float) (button.y + button.getHeight() / 2d - skillSize / 2);
+      skillsGrid.add(button, skillX, skillY, skillX + skillSize, skillY + skillSize);
+    }
+    gatewayConnectionsGrid.clear();
+    gatewayConnections.forEach(
+        connection -> addConnectionToIndex(gatewayConnectionsGrid, connection));
+  }
+
+  private void addConnectionToIndex(
+      SpatialGrid<SkillConnection> grid, SkillConnection connection) {
+    SkillButton button1 = connection.getFirstButton();
+    SkillButton button2 = connection.getSecondButton();
+    float x1 = (float) (button1.x + button1.getWidth() / 2d);
+    float y1 = (float) (button1.y + button1.getHeight() / 2d);
+    float x2 = (float) (button2.x + button2.getWidth() / 2d);
+    float y2 = (float) (button2.y + button2.getHeight() / 2d);
+    float thickness = 3 * zoom;
+    grid.add(
+        connection,
+        Math.min(x1, x2) - thickness,
+        Math.min(y1, y2) - thickness,
+        Math.max(x1, x2) + thickness,
+        Math.max(y1, y2) + thickness);
+  }
+
+  private void updatePlannedPath() {
+    plannedPath.clear();
+    if (pathTarget == null) return;
+    SkillGraph graph = SkillTreeClientData.getSkillGraph();
+    BitSet learned = new BitSet();
+    Stream.concat(learnedSkills.stream(), newlyLearnedSkills.stream())
+        .mapToInt(graph::indexOf)
+        .filter(index -> index != -1)
+        .forEach(learned::set);
+    int[] path = SkillPathfinder.findPath(graph, learned, graph.indexOf(pathTarget));
+    if (path == null) return;
+    Arrays.stream(path)
+        .mapToObj(graph::getSkill)
+        .map(PassiveSkill::getId)
+        .forEach(plannedPath::add);
   }
 
   private void addTopButtons() {
@@ -145,44 +248,107 @@ public class SkillTreeScreen extends Screen {
     }
     addRenderableWidget(pointsInfo);
     buttonsY += 20;
-    Button confirmButton =
+    confirmButton =
         new Button(width / 2 - 8 - buttonWidth, buttonsY, buttonWidth, 14, confirmButtonText);
     confirmButton.setPressFunc(b -> confirmLearnSkills());
     addRenderableWidget(confirmButton);
-    Button cancelButton = new Button(width / 2 + 8, buttonsY, buttonWidth, 14, cancelButtonText);
+    cancelButton = new Button(width / 2 + 8, buttonsY, buttonWidth, 14, cancelButtonText);
     cancelButton.setPressFunc(b -> cancelLearnSkills());
     addRenderableWidget(cancelButton);
     confirmButton.active = cancelButton.active = !newlyLearnedSkills.isEmpty();
   }
 
+  private void addSearchField() {
+    searchField = new TextField(font, 8, 48, 120, 14, searchQuery);
+    searchField.setResponder(this::searchQueryChanged);
+    addRenderableWidget(searchField);
+  }
+
+  private void searchQueryChanged(String query) {
+    searchQuery = query;
+    updateSearchResults();
+  }
+
+  /** Search results only include skills of this tree, the best matches first. */
+  private void updateSearchResults() {
+    searchResults.clear();
+    searchMatches.clear();
+    searchResultIndex = -1;
+    if (searchQuery.isBlank()) return;
+    for (ResourceLocation skillId : SkillTreeClientData.getSearchIndex().search(searchQuery)) {
+      if (!skillButtons.containsKey(skillId)) continue;
+      searchResults.add(skillId);
+      searchMatches.add(skillId);
+    }
+  }
+
+  /** Scrolls to the next search result, in the order of their ranking. */
+  private void scrollToNextSearchResult() {
+    if (searchResults.isEmpty()) return;
+    searchResultIndex = (searchResultIndex + 1) % searchResults.size();
+    SkillButton button = skillButtons.get(searchResults.get(searchResultIndex));
+    scrollX = width / 2d - (button.x + button.getWidth() / 2d);
+    scrollY = height / 2d - (button.y + button.getHeight() / 2d);
+    scrollSpeedX = scrollSpeedY = 0;
+  }
+
   @Override
   public void render(@NotNull PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
+    frameProfiler.startFrame();
+    frameProfiler.startPhase(FrameProfiler.Phase.BACKGROUND);
     updateScreen(partialTick);
     renderAnimation += partialTick;
     renderBackground(poseStack);
+    frameProfiler.startPhase(FrameProfiler.Phase.CONNECTIONS);
     renderConnections(poseStack, mouseX, mouseY);
+    frameProfiler.startPhase(FrameProfiler.Phase.SKILLS);
     renderSkills(poseStack, mouseX, mouseY, partialTick);
+    frameProfiler.startPhase(FrameProfiler.Phase.OVERLAY);
     renderOverlay(poseStack);
+    renderMinimap(poseStack);
+    frameProfiler.startPhase(FrameProfiler.Phase.WIDGETS);
     renderWidgets(poseStack, mouseX, mouseY, partialTick);
+    frameProfiler.startPhase(FrameProfiler.Phase.TOOLTIP);
     renderSkillTooltip(poseStack, mouseX, mouseY, partialTick);
+    frameProfiler.endFrame();
+    frameProfiler.render(poseStack, font, 2, 2);
     prevMouseX = mouseX;
     prevMouseY = mouseY;
   }
 
   private void renderWidgets(PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
-    MutableComponent pointsLeft =
-        Component.literal("" + skillPoints).withStyle(Style.EMPTY.withColor(0xFCE266));
-    pointsInfo.setMessage(Component.translatable("widget.skill_points_left", pointsLeft));
+    // points can also be changed by the server, when a point is bought
+    if (skillPoints != displayedSkillPoints) updateSkillStates();
     statsInfo.x = width - statsInfo.getWidth() - 10;
     statsInfo.visible = showStats;
     for (Widget widget : renderables) {
       if (widget instanceof SkillButton) continue;
       widget.render(poseStack, mouseX, mouseY, partialTick);
     }
+    if (searchQuery.isEmpty() && !searchField.isFocused()) {
+      MutableComponent hint = Component.translatable("widget.skill_search");
+      font.drawShadow(poseStack, hint, searchField.x + 5, searchField.y + 3, 0x808080);
+    }
+  }
+
+  private void renderMinimap(PoseStack poseStack) {
+    float viewMinX = (float) ((-width / 2d - scrollX) / zoom);
+    float viewMinY = (float) ((-height / 2d - scrollY) / zoom);
+    float viewMaxX = (float) ((width / 2d - scrollX) / zoom);
+    float viewMaxY = (float) ((height / 2d - scrollY) / zoom);
+    minimap.render(
+        poseStack,
+        skillButtons.values(),
+        skillConnections,
+        viewMinX,
+        viewMinY,
+        viewMaxX,
+        viewMaxY);
   }
 
   private void renderSkillTooltip(PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
     if (getWidgetAt(mouseX, mouseY).isPresent()) return;
+    if (minimap.isMouseOver(mouseX, mouseY)) return;
     SkillButton skill = getSkillAt(mouseX, mouseY);
     if (skill == null) return;
     float tooltipX = mouseX + (prevMouseX - mouseX) * partialTick;
@@ -194,27 +360,117 @@ public class SkillTreeScreen extends Screen {
   private void renderSkills(PoseStack poseStack, int mouseX, int mouseY, float partialTick) {
     poseStack.pushPose();
     poseStack.translate(scrollX, scrollY, 0);
-    for (SkillButton widget : skillButtons.values()) {
+    // favorite skill highlights are drawn almost twice as big as the skill
+    float margin = SKILL_RENDER_MARGIN * zoom;
+    visibleSkills.clear();
+    forEachVisible(skillsGrid, margin, visibleSkills::add);
+    unbatchedSkills.clear();
+    if (isLowDetail()) {
+      SkillDotBatch.render(poseStack, visibleSkills, zoom, getAnimation());
+    } else {
+      SkillButtonBatch.render(poseStack, visibleSkills, zoom, getAnimation(), unbatchedSkills);
+    }
+    for (SkillButton widget : unbatchedSkills) {
       poseStack.pushPose();
-      poseStack.translate(
-          widget.x + widget.getWidth() / 2d, widget.y + widget.getHeight() / 2d, 0F);
-      poseStack.scale(zoom, zoom, 1F);
-      poseStack.translate(
-          -widget.x - widget.getWidth() / 2d, -widget.y - widget.getHeight() / 2d, 0F);
+      scaleAroundCenter(poseStack, widget);
       widget.render(poseStack, mouseX, mouseY, partialTick);
       poseStack.popPose();
     }
+    if (!plannedPath.isEmpty()) {
+      for (SkillButton widget : visibleSkills) {
+        if (!plannedPath.contains(widget.skill.getId())) continue;
+        poseStack.pushPose();
+        scaleAroundCenter(poseStack, widget);
+        renderPlannedPath(poseStack, widget);
+        poseStack.popPose();
+      }
+    }
+    if (!searchMatches.isEmpty()) {
+      for (SkillButton widget : visibleSkills) {
+        if (!searchMatches.contains(widget.skill.getId())) continue;
+        poseStack.pushPose();
+        scaleAroundCenter(poseStack, widget);
+        renderSearchMatch(poseStack, widget);
+        poseStack.popPose();
+      }
+    }
+    poseStack.popPose();
+  }
+
+  private <T> void forEachVisible(SpatialGrid<T> grid, float margin, Consumer<T> consumer) {
+    float minX = (float) -scrollX - margin;
+    float minY = (float) -scrollY - margin;
+    float maxX = minX + width + margin * 2;
+    float maxY = minY + height + margin * 2;
+    grid.forEachIntersecting(minX, minY, maxX, maxY, consumer);
+  }
+
+  private void scaleAroundCenter(PoseStack poseStack, SkillButton widget) {
+    double centerX = widget.x + widget.getWidth() / 2d;
+    double centerY = widget.y + widget.getHeight() / 2d;
+    poseStack.translate(centerX, centerY, 0F);
+    poseStack.scale(zoom, zoom, 1F);
+    poseStack.translate(-centerX, -centerY, 0F);
+  }
+
+  private void renderPlannedPath(PoseStack poseStack, SkillButton widget) {
+    poseStack.pushPose();
+    poseStack.translate(widget.x, widget.y, 0);
+    ScreenHelper.drawRectangle(
+        poseStack, -1, -1, widget.getWidth() + 2, widget.getHeight() + 2, 0xAAFCE266);
+    poseStack.popPose();
+  }
+
+  private void renderSearchMatch(PoseStack poseStack, SkillButton widget) {
+    poseStack.pushPose();
+    poseStack.translate(widget.x, widget.y, 0);
+    int alpha = (int) ((Mth.sin(getAnimation() / 3F) + 1) / 2 * 127) + 128;
+    int color = alpha << 24 | 0x7FE5FF;
+    ScreenHelper.drawRectangle(
+        poseStack, -3, -3, widget.getWidth() + 6, widget.getHeight() + 6, color);
+    ScreenHelper.drawRectangle(
+        poseStack, -4, -4, widget.getWidth() + 8, widget.getHeight() + 8, color);
     poseStack.popPose();
   }
 
+  @Override
+  public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+    if (PSTKeybinds.DEBUG_OVERLAY_KEY.matches(keyCode, scanCode)) {
+      FrameProfiler.toggle();
+      return true;
+    }
+    if (searchField.isFocused() && keyCode == GLFW.GLFW_KEY_ENTER) {
+      scrollToNextSearchResult();
+      return true;
+    }
+    return super.keyPressed(keyCode, scanCode, modifiers);
+  }
+
   @Override
   public boolean mouseClicked(double mouseX, double mouseY, int button) {
     Optional<GuiEventListener> widget = getWidgetAt(mouseX, mouseY);
+    boolean searchFieldClicked = widget.filter(searchField::equals).isPresent();
+    searchField.setFocus(searchFieldClicked);
+    setFocused(searchFieldClicked ? searchField : null);
     if (widget.isPresent()) return widget.get().mouseClicked(mouseX, mouseY, button);
+    if (minimap.isMouseOver(mouseX, mouseY)) {
+      scrollX = -minimap.toTreeX(mouseX) * zoom;
+      scrollY = -minimap.toTreeY(mouseY) * zoom;
+      scrollSpeedX = scrollSpeedY = 0;
+      return true;
+    }
     SkillButton skill = getSkillAt(mouseX, mouseY);
     if (skill == null) return false;
     if (button == 0) {
       return skill.mouseClicked(skill.x + 1, skill.y + 1, button);
+    } else if (button == 1 && hasShiftDown()) {
+      ResourceLocation skillId = skill.skill.getId();
+      pathTarget = skillId.equals(pathTarget) ? null : skillId;
+      updatePlannedPath();
+      getMinecraft()
+          .getSoundManager()
+          .play(SimpleSoundInstance.forUI(SoundEvents.UI_BUTTON_CLICK, 1f));
+      return true;
     } else if (button == 1) {
       ClientConfig.toggleFavoriteSkill(skill.skill);
       getMinecraft()
@@ -231,39 +487,14 @@ public class SkillTreeScreen extends Screen {
   }
 
   public @Nullable SkillButton getSkillAt(double mouseX, double mouseY) {
-    mouseX -= scrollX;
-    mouseY -= scrollY;
-    for (SkillButton button : skillButtons.values()) {
-      double skillSize = button.skill.getButtonSize() * zoom;
-      double skillX = button.x + button.getWidth() / 2d - skillSize / 2;
-      double skillY = button.y + button.getHeight() / 2d - skillSize / 2;
-      if (mouseX >= skillX
-          && mouseY >= skillY
-          && mouseX < skillX + skillSize
-          && mouseY < skillY + skillSize) {
-        return button;
-      }
-    }
-    return null;
-  }
-
-  private List<MutableComponent> getMergedSkillBonusesTooltips() {
-    List<SkillBonus<?>> allBonuses = new ArrayList<>();
-    learnedSkills.stream()
-        .map(skillButtons::get)
-        .map(button -> button.skill)
-        .map(PassiveSkill::getBonuses)
-        .forEach(skillBonuses -> mergeSkillBonuses(allBonuses, skillBonuses));
-    return allBonuses.stream()
-        .map(SkillBonus::getTooltip)
-        .sorted(SkillTreeScreen::sortSkillBonusTooltips)
-        .toList();
+    return skillsGrid.getAt((float) (mouseX - scrollX), (float) (mouseY - scrollY));
   }
 
   protected void firstInit() {
     IPlayerSkills capability = PlayerSkillsProvider.get(getPlayer());
     List<PassiveSkill> skills = capability.getPlayerSkills();
     skills.stream().map(PassiveSkill::getId).forEach(learnedSkills::add);
+    skills.forEach(mergedBonuses::addSkill);
     skillPoints = capability.getSkillPoints();
     firstInitDone = true;
   }
@@ -357,12 +588,65 @@ public class SkillTreeScreen extends Screen {
   private void confirmLearnSkills() {
     newlyLearnedSkills.forEach(id -> learnSkill(skillButtons.get(id).skill));
     newlyLearnedSkills.clear();
+    statsInfo.setStats(mergedBonuses.getTooltips());
+    updateSkillStates();
+  }
+
+  /**
+   * Takes over learned skills and points synced by the server. The server answers every learned
+   * skill with a sync, so skills that were sent but not acknowledged yet stay learned, unless the
+   * server dropped skills it had already confirmed. Skills that are still waiting for confirmation
+   * keep their points reserved. Only the difference is applied to the merged bonuses.
+   */
+  public void onSkillsSynced(List<PassiveSkill> skills, int points) {
+    Set<ResourceLocation> syncedSkills = new LinkedHashSet<>();
+    skills.stream().map(PassiveSkill::getId).forEach(syncedSkills::add);
+    dropRejectedSkills(syncedSkills);
+    sentSkills.removeAll(syncedSkills);
+    Set<ResourceLocation> confirmedSkills = new HashSet<>(learnedSkills);
+    confirmedSkills.removeAll(sentSkills);
+    if (!syncedSkills.containsAll(confirmedSkills)) sentSkills.clear();
+    Set<ResourceLocation> skillsToKeep = new HashSet<>(syncedSkills);
+    skillsToKeep.addAll(sentSkills);
+    boolean changed = false;
+    for (Iterator<ResourceLocation> iterator = learnedSkills.iterator(); iterator.hasNext(); ) {
+      ResourceLocation skillId = iterator.next();
+      if (skillsToKeep.contains(skillId)) continue;
+      iterator.remove();
+      PassiveSkill skill = SkillTreeClientData.getSkill(skillId);
+      if (skill != null) mergedBonuses.removeSkill(skill);
+      changed = true;
+    }
+    for (PassiveSkill skill : skills) {
+      if (!learnedSkills.add(skill.getId())) continue;
+      mergedBonuses.addSkill(skill);
+      changed = true;
+    }
+    if (changed) statsInfo.setStats(mergedBonuses.getTooltips());
+    newlyLearnedSkills.removeAll(learnedSkills);
+    skillPoints = Math.max(0, points - sentSkills.size() - newlyLearnedSkills.size());
+    updateSkillStates();
+  }
+
+  /**
+   * Skills are learned on the server in the order they were sent, so sent skills older than the
+   * newest acknowledged one and missing from the sync were rejected.
+   */
+  private void dropRejectedSkills(Set<ResourceLocation> syncedSkills) {
+    List<ResourceLocation> sent = new ArrayList<>(sentSkills);
+    int lastAcknowledged = -1;
+    for (int i = 0; i < sent.size(); i++) {
+      if (syncedSkills.contains(sent.get(i))) lastAcknowledged = i;
+    }
+    for (int i = 0; i < lastAcknowledged; i++) {
+      if (!syncedSkills.contains(sent.get(i))) sentSkills.remove(sent.get(i));
+    }
   }
 
   private void cancelLearnSkills() {
     skillPoints += newlyLearnedSkills.size();
     newlyLearnedSkills.clear();
-    rebuildWidgets();
+    updateSkillStates();
   }
 
   private void buySkillPoint() {
@@ -397,7 +681,7 @@ public class SkillTreeScreen extends Screen {
     if (button.animated) {
       skillPoints--;
       newlyLearnedSkills.add(skill.getId());
-      rebuildWidgets();
+      updateSkillStates();
       return;
     }
     ResourceLocation connectedTree = skill.getConnectedTreeId();
@@ -408,8 +692,9 @@ public class SkillTreeScreen extends Screen {
 
   protected void learnSkill(PassiveSkill skill) {
     learnedSkills.add(skill.getId());
+    sentSkills.add(skill.getId());
+    mergedBonuses.addSkill(skill);
     NetworkDispatcher.network_channel.sendToServer(new LearnSkillMessage(skill));
-    rebuildWidgets();
   }
 
   private void updateScreen(float partialTick) {
@@ -443,7 +728,18 @@ public class SkillTreeScreen extends Screen {
     poseStack.pushPose();
     poseStack.translate(scrollX / 3F, scrollY / 3F, 0);
     int size = BACKGROUND_SIZE;
-    blit(poseStack, (width - size) / 2, (height - size) / 2, 0, 0F, 0F, size, size, size, size);
+    int left = (width - size) / 2;
+    int top = (height - size) / 2;
+    // only the part of the background that is on the screen is drawn
+    int minX = Math.max(left, Mth.floor(-scrollX / 3F));
+    int minY = Math.max(top, Mth.floor(-scrollY / 3F));
+    int maxX = Math.min(left + size, Mth.ceil(width - scrollX / 3F));
+    int maxY = Math.min(top + size, Mth.ceil(height - scrollY / 3F));
+    if (maxX > minX && maxY > minY) {
+      float u = minX - left;
+      float v = minY - top;
+      blit(poseStack, minX, minY, 0, u, v, maxX - minX, maxY - minY, size, size);
+    }
     poseStack.popPose();
   }
 
@@ -459,20 +755,38 @@ public class SkillTreeScreen extends Screen {
   @Override
   public boolean mouseScrolled(double mouseX, double mouseY, double amount) {
     if (getWidgetAt(mouseX, mouseY).filter(SkillBonusList.class::isInstance).isEmpty()) {
+      float previousZoom = zoom;
       if (amount > 0 && zoom < 2F) zoom += 0.05f;
       if (amount < 0 && zoom > 0.25F) zoom -= 0.05f;
-      rebuildWidgets();
+      if (zoom != previousZoom) updateZoom();
     }
     return super.mouseScrolled(mouseX, mouseY, amount);
   }
 
+  /** Moves skills to their positions at the new zoom, which is all that zoom affects. */
+  private void updateZoom() {
+    for (SkillButton button : skillButtons.values()) {
+      button.setPosition(getSkillButtonX(button.skill), getSkillButtonY(button.skill));
+    }
+    rebuildSpatialIndex();
+  }
+
   protected void renderConnections(PoseStack poseStack, int mouseX, int mouseY) {
-    ScreenHelper.prepareTextureRendering(
-        new ResourceLocation("skilltree:textures/screen/skill_connection.png"));
-    skillConnections.forEach(connection -> renderConnection(poseStack, connection));
+    if (connectionMesh.needsRebuild(zoom, width, height)) {
+      connectionMesh.rebuild(skillConnections, zoom, width, height, isLowDetail());
+    }
+    poseStack.pushPose();
+    poseStack.translate(scrollX, scrollY, 0);
+    connectionMesh.render(poseStack);
+    float alpha = (Mth.sin(getAnimation() / 3F) + 1) / 2;
+    SkillConnectionMesh.renderHighlights(
+        poseStack, animatedConnections, zoom, alpha, isLowDetail());
+    poseStack.popPose();
     ScreenHelper.prepareTextureRendering(
         new ResourceLocation("skilltree:textures/screen/gateway_connection.png"));
-    gatewayConnections.forEach(
+    forEachVisible(
+        gatewayConnectionsGrid,
+        0,
         connection -> renderGatewayConnection(poseStack, connection, mouseX, mouseY));
   }
 
@@ -516,27 +830,14 @@ public class SkillTreeScreen extends Screen {
     poseStack.popPose();
   }
 
-  private void renderConnection(PoseStack poseStack, SkillConnection connection) {
-    poseStack.pushPose();
-    SkillButton button1 = connection.getFirstButton();
-    SkillButton button2 = connection.getSecondButton();
-    double connectionX = button1.x + button1.getWidth() / 2F;
-    double connectionY = button1.y + button1.getHeight() / 2F;
-    poseStack.translate(connectionX + scrollX, connectionY + scrollY, 0);
-    float rotation = ScreenHelper.getAngleBetweenButtons(button1, button2);
-    poseStack.mulPose(Vector3f.ZP.rotation(rotation));
-    int length = (int) ScreenHelper.getDistanceBetweenButtons(button1, button2);
-    boolean highlighted = button1.highlighted && button2.highlighted;
-    poseStack.scale(1F, zoom, 1F);
-    blit(poseStack, 0, -3, length, 6, 0, highlighted ? 0 : 6, length, 6, 50, 12);
-    boolean shouldAnimate =
-        button1.highlighted && button2.animated || button2.highlighted && button1.animated;
-    if (!highlighted && shouldAnimate) {
-      RenderSystem.setShaderColor(1F, 1F, 1F, (Mth.sin(getAnimation() / 3F) + 1) / 2);
-      blit(poseStack, 0, -3, length, 6, 0, 0, length, 6, 50, 12);
-      RenderSystem.setShaderColor(1F, 1F, 1F, 1F);
-    }
-    poseStack.popPose();
+  private boolean isLowDetail() {
+    return zoom <= LOW_DETAIL_ZOOM;
+  }
+
+  @Override
+  public void removed() {
+    connectionMesh.close();
+    minimap.close();
   }
 
   public float getAnimation() {
@@ -0,0 +1,113 @@
+package daripher.skilltree.client.screen;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import net.minecraft.util.Mth;
+
+/**
+ * Uniform grid over screen space. Every entry is put into all cells its bounds overlap, so a point
+ * query only looks into one cell and an area query only into the cells it covers.
+ */
+public class SpatialGrid<T> {
+  private final Long2ObjectOpenHashMap<IntArrayList> cells = new Long2ObjectOpenHashMap<>();
+  private final List<T> entries = new ArrayList<>();
+  private final IntArrayList found = new IntArrayList();
+  private final int cellSize;
+  private float[] bounds = new float[64];
+  private int[] visitStamps = new int[16];
+  private int visitStamp;
+
+  public SpatialGrid(int cellSize) {
+    this.cellSize = cellSize;
+  }
+
+  public void clear() {
+    cells.clear();
+    entries.clear();
+  }
+
+  public void add(T entry, float minX, float minY, float maxX, float maxY) {
+    int index = entries.size();
+    entries.add(entry);
+    if (bounds.length < entries.size() * 4) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+    bounds[index * 4] = minX;
+    bounds[index * 4 + 1] = minY;
+    bounds[index * 4 + 2] = maxX;
+    bounds[index * 4 + 3] = maxY;
+    for (int cellX = getCell(minX); cellX <= getCell(maxX); cellX++) {
+      for (int cellY = getCell(minY); cellY <= getCell(maxY); cellY++) {
+        cells.computeIfAbsent(getCellKey(cellX, cellY), k -> new IntArrayList()).add(index);
+      }
+    }
+  }
+
+  /** @return the last added entry containing the point, or null if there is none */
+  public @Nullable T getAt(float x, float y) {
+    IntArrayList cell = cells.get(getCellKey(getCell(x), getCell(y)));
+    if (cell == null) return null;
+    for (int i = cell.size() - 1; i >= 0; i--) {
+      int index = cell.getInt(i);
+      if (contains(index, x, y)) return entries.get(index);
+    }
+    return null;
+  }
+
+  /** Passes every entry intersecting the area to the consumer once, in the order of adding. */
+  public void forEachIntersecting(
+      float minX, float minY, float maxX, float maxY, Consumer<T> consumer) {
+    if (visitStamps.length < entries.size()) {
+      visitStamps = new int[Math.max(entries.size(), visitStamps.length * 2)];
+      visitStamp = 0;
+    }
+    visitStamp++;
+    found.clear();
+    for (int cellX = getCell(minX); cellX <= getCell(maxX); cellX++) {
+      for (int cellY = getCell(minY); cellY <= getCell(maxY); cellY++) {
+        IntArrayList cell = cells.get(getCellKey(cellX, cellY));
+        if (cell == null) continue;
+        for (int i = 0; i < cell.size(); i++) {
+          int index = cell.getInt(i);
+          if (visitStamps[index] == visitStamp) continue;
+          visitStamps[index] = visitStamp;
+          if (intersects(index, minX, minY, maxX, maxY)) found.add(index);
+        }
+      }
+    }
+    IntArrays.quickSort(found.elements(), 0, found.size());
+    for (int i = 0; i < found.size(); i++) {
+      consumer.accept(entries.get(found.getInt(i)));
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private boolean contains(int index, float x, float y) {
+    return x >= bounds[index * 4]
+        && y >= bounds[index * 4 + 1]
+        && x < bounds[index * 4 + 2]
+        && y < bounds[index * 4 + 3];
+  }
+
+  private boolean intersects(int index, float minX, float minY, float maxX, float maxY) {
+    return maxX >= bounds[index * 4]
+        && maxY >= bounds[index * 4 + 1]
+        && minX <= bounds[index * 4 + 2]
+        && minY <= bounds[index * 4 + 3];
+  }
+
+  private int getCell(float coordinate) {
+    return Mth.floor(coordinate / cellSize);
+  }
+
+  private static long getCellKey(int cellX, int cellY) {
+    return (long) cellX << 32 | cellY & 0xFFFFFFFFL;
+  }
+}
@@ -0,0 +1,194 @@
+package daripher.skilltree.client.skill;
+
+import com.google.gson.JsonObject;
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.data.reloader.SkillsReloader;
+import daripher.skilltree.network.NetworkHelper;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.PassiveSkillTree;
+import io.netty.buffer.Unpooled;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import net.minecraft.Util;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.fml.loader.FMLPaths;
+
+/**
+ * Packs the editor data into a datapack zip. Saved skill and skill tree files are streamed from
+ * the editor folder straight into the archive on a separate thread, so nothing is staged on disk
+ * and the editor stays responsive. Optionally the archive also gets {@link #CATALOG_ENTRY}, all
+ * exported skills and trees in the binary format the server uses to sync them to clients.
+ */
+public class DatapackExporter {
+  private static final String CATALOG_ENTRY = "skilltree/catalog.bin";
+  private static final int DATA_PACK_FORMAT = 10;
+  private static final ExecutorService EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "Skill Tree Exporter");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final Path savesFolder;
+  private final Path output;
+  private final boolean includeCatalog;
+  private volatile int exportedFiles;
+  private volatile int totalFiles;
+  private volatile boolean finished;
+  private volatile boolean failed;
+
+  private DatapackExporter(Path savesFolder, Path output, boolean includeCatalog) {
+    this.savesFolder = savesFolder;
+    this.output = output;
+    this.includeCatalog = includeCatalog;
+  }
+
+  /** Writes pending editor saves and starts exporting them into a new zip in the exports folder. */
+  public static DatapackExporter start(boolean includeCatalog) {
+    SkillTreeClientData.flushEditorSaves();
+    Path savesFolder = SkillTreeClientData.getSavesFolder().toPath();
+    File exportsFolder = new File(FMLPaths.GAMEDIR.get().toFile(), "skilltree/editor/exports");
+    String fileName = "skilltree_" + Util.getFilenameFormattedDateTime() + ".zip";
+    Path output = new File(exportsFolder, fileName).toPath();
+    DatapackExporter exporter = new DatapackExporter(savesFolder, output, includeCatalog);
+    EXECUTOR.execute(exporter::run);
+    return exporter;
+  }
+
+  public Path getOutput() {
+    return output;
+  }
+
+  public float getProgress() {
+    int total = totalFiles;
+    return total == 0 ? 0F : (float) exportedFiles / total;
+  }
+
+  public boolean isFinished() {
+    return finished;
+  }
+
+  public boolean hasFailed() {
+    return failed;
+  }
+
+  private void run() {
+    try {
+      export();
+    } catch (IOException | RuntimeException e) {
+      SkillTreeMod.LOGGER.error("Couldn't export {}", output, e);
+      failed = true;
+      try {
+        Files.deleteIfExists(output);
+      } catch (IOException ignored) {
+      }
+    }
+    finished = true;
+  }
+
+  private void export() throws IOException {
+    List<Path> files = findExportedFiles();
+    totalFiles = files.size();
+    List<PassiveSkill> skills = new ArrayList<>();
+    List<PassiveSkillTree> skillTrees = new ArrayList<>();
+    Files.createDirectories(output.getParent());
+    try (ZipOutputStream zip =
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+      zip.putNextEntry(new ZipEntry("pack.mcmeta"));
+      zip.write(createPackMetadata().getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      for (Path file : files) {
+        Path relativePath = savesFolder.relativize(file);
+        boolean skill = relativePath.getName(1).toString().equals("skills");
+        zip.putNextEntry(new ZipEntry("data/" + toEntryName(relativePath)));
+        if (includeCatalog) {
+          byte[] content = Files.readAllBytes(file);
+          zip.write(content);
+          String json = new String(content, StandardCharsets.UTF_8);
+          if (skill) addParsed(skills, json, PassiveSkill.class, file);
+          else addParsed(skillTrees, json, PassiveSkillTree.class, file);
+        } else {
+          Files.copy(file, zip);
+        }
+        zip.closeEntry();
+        exportedFiles++;
+      }
+      if (includeCatalog) {
+        zip.putNextEntry(new ZipEntry(CATALOG_ENTRY));
+        writeCatalog(zip, skills, skillTrees);
+        zip.closeEntry();
+      }
+    }
+  }
+
+  /** @return saved skills and skill trees, sorted so that the archive is the same every time */
+  private List<Path> findExportedFiles() throws IOException {
+    if (!Files.isDirectory(savesFolder)) return List.of();
+    try (Stream<Path> files = Files.walk(savesFolder)) {
+      return files
+          .filter(Files::isRegularFile)
+          .filter(path -> path.toString().endsWith(".json"))
+          .filter(this::isExportedFile)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /** Only files in {@code <namespace>/skills} and {@code <namespace>/skill_trees} are exported. */
+  private boolean isExportedFile(Path file) {
+    Path relativePath = savesFolder.relativize(file);
+    if (relativePath.getNameCount() < 3) return false;
+    String folder = relativePath.getName(1).toString();
+    return folder.equals("skills") || folder.equals("skill_trees");
+  }
+
+  private static String toEntryName(Path relativePath) {
+    List<String> names = new ArrayList<>();
+    relativePath.forEach(name -> names.add(name.toString()));
+    return String.join("/", names);
+  }
+
+  private static <T> void addParsed(List<T> objects, String json, Class<T> type, Path file) {
+    try {
+      T object = SkillsReloader.GSON.fromJson(json, type);
+      if (object != null) objects.add(object);
+    } catch (RuntimeException e) {
+      SkillTreeMod.LOGGER.error("Couldn't add {} to the exported catalog", file, e);
+    }
+  }
+
+  private static void writeCatalog(
+      OutputStream stream, List<PassiveSkill> skills, List<PassiveSkillTree> skillTrees)
+      throws IOException {
+    FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+    try {
+      NetworkHelper.writePassiveSkills(buf, skills);
+      NetworkHelper.writePassiveSkillTrees(buf, skillTrees);
+      buf.getBytes(buf.readerIndex(), stream, buf.readableBytes());
+    } finally {
+      buf.release();
+    }
+  }
+
+  private static String createPackMetadata() {
+    JsonObject pack = new JsonObject();
+    pack.addProperty("description", "Passive Skill Tree editor export");
+    pack.addProperty("pack_format", DATA_PACK_FORMAT);
+    JsonObject metadata = new JsonObject();
+    metadata.add("pack", pack);
+    return SkillsReloader.GSON.toJson(metadata);
+  }
+}
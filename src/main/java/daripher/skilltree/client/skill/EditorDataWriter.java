@@ -0,0 +1,132 @@
+package daripher.skilltree.client.skill;
+
+import com.google.gson.Gson;
+import daripher.skilltree.SkillTreeMod;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.minecraft.client.Minecraft;
+
+/**
+ * Writes editor files on a dedicated thread. Saves are coalesced per file and only written once
+ * the editor has been quiet for {@link #DEBOUNCE_MILLIS}, so dragging many skills writes each of
+ * them once instead of once per mouse move. Edited objects are only touched on the render thread:
+ * they are serialized there when the debounce window ends, and the thread only gets the text.
+ * Files are written to a temporary file first and then moved over the old one, so a crash can't
+ * leave a half written file behind. Files stay tracked until the thread has written or deleted
+ * them, so readers know when the file on disk is not up to date yet.
+ */
+public class EditorDataWriter {
+  private static final long DEBOUNCE_MILLIS = 500;
+  private static final Map<File, PendingWrite> PENDING_WRITES = new LinkedHashMap<>();
+  private static final Map<File, Integer> QUEUED_WRITES = new ConcurrentHashMap<>();
+  private static final AtomicBoolean FLUSH_SCHEDULED = new AtomicBoolean();
+  private static final ScheduledExecutorService EXECUTOR =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "Skill Tree Editor Writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static volatile long last_change_time;
+
+  /** Schedules the object to be written into the file, replacing any pending write of it. */
+  public static void save(File file, Object object, Gson gson) {
+    PENDING_WRITES.put(file, new PendingWrite(object, gson));
+    last_change_time = System.currentTimeMillis();
+    if (FLUSH_SCHEDULED.compareAndSet(false, true)) {
+      EXECUTOR.schedule(EditorDataWriter::debounce, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Cancels pending writes of the file and deletes it after the writes already queued. */
+  public static void delete(File file) {
+    PENDING_WRITES.remove(file);
+    queue(file, () -> file.delete());
+  }
+
+  /** @return whether the file has changes that aren't on disk yet, pending or being written */
+  public static boolean hasPendingWrite(File file) {
+    return PENDING_WRITES.containsKey(file) || QUEUED_WRITES.containsKey(file);
+  }
+
+  /** Writes everything that is pending and waits for the writes to finish. */
+  public static void flush() {
+    queuePendingWrites();
+    try {
+      EXECUTOR.submit(() -> {}).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      SkillTreeMod.LOGGER.error("Couldn't flush editor data", e);
+    }
+  }
+
+  /** Runs on the writer thread, waits until nothing was saved for the whole debounce window. */
+  private static void debounce() {
+    long quietTime = System.currentTimeMillis() - last_change_time;
+    if (quietTime < DEBOUNCE_MILLIS) {
+      long delay = DEBOUNCE_MILLIS - quietTime;
+      EXECUTOR.schedule(EditorDataWriter::debounce, delay, TimeUnit.MILLISECONDS);
+      return;
+    }
+    FLUSH_SCHEDULED.set(false);
+    Minecraft.getInstance().execute(EditorDataWriter::queuePendingWrites);
+  }
+
+  /** Serializes pending objects on the render thread and hands the text to the writer thread. */
+  private static void queuePendingWrites() {
+    if (PENDING_WRITES.isEmpty()) return;
+    Map<File, String> contents = new LinkedHashMap<>();
+    PENDING_WRITES.forEach((file, write) -> contents.put(file, write.gson.toJson(write.object)));
+    PENDING_WRITES.clear();
+    contents.forEach((file, content) -> queue(file, () -> write(file, content)));
+  }
+
+  /** Runs the file operation on the writer thread, tracking the file until it is done. */
+  private static void queue(File file, Runnable operation) {
+    QUEUED_WRITES.merge(file, 1, Integer::sum);
+    EXECUTOR.execute(
+        () -> {
+          try {
+            operation.run();
+          } finally {
+            QUEUED_WRITES.computeIfPresent(file, (f, count) -> count == 1 ? null : count - 1);
+          }
+        });
+  }
+
+  private static void write(File file, String content) {
+    Path target = file.toPath();
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(target.getParent());
+      Files.writeString(temporary, content, StandardCharsets.UTF_8);
+      try {
+        Files.move(
+            temporary,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      SkillTreeMod.LOGGER.error("Couldn't save {}", file, e);
+    }
+  }
+
+  private record PendingWrite(Object object, Gson gson) {}
+}
@@ -0,0 +1,272 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.PassiveSkillTree;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Undo and redo for the skill tree editor. The editor changes skills in place, so instead of
+ * copying skills before every edit the history keeps the last known state of every skill and,
+ * when an edit is committed, stores only the properties that differ from it. Unchanged values are
+ * never copied again, so lists of connections and bonuses are shared between the known state and
+ * all the edits that didn't touch them. Bonuses are shared as well, editors replace them instead
+ * of changing them.
+ *
+ * <p>Edits committed with the same merge key in quick succession are merged into one, so typing a
+ * value or dragging skills around can be undone in one step. The history keeps at most {@link
+ * #MAX_EDITS} edits and {@link #MAX_CHANGES} changed values, the oldest edits are dropped first.
+ */
+public class EditorHistory {
+  private static final int MAX_EDITS = 200;
+  private static final int MAX_CHANGES = 100_000;
+  private static final long MERGE_MILLIS = 1000;
+  private final Map<ResourceLocation, SkillState> knownStates = new HashMap<>();
+  private final Deque<Edit> undoEdits = new ArrayDeque<>();
+  private final Deque<Edit> redoEdits = new ArrayDeque<>();
+  private final PassiveSkillTree skillTree;
+  private @Nullable Object lastMergeKey;
+  private long lastCommitTime;
+  private int storedChanges;
+
+  public EditorHistory(PassiveSkillTree skillTree) {
+    this.skillTree = skillTree;
+    skillTree.getSkillIds().forEach(this::refresh);
+  }
+
+  /** Accepts the current state of the skill without recording how it got there. */
+  public void refresh(ResourceLocation skillId) {
+    PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+    if (skill == null) knownStates.remove(skillId);
+    else knownStates.put(skillId, new SkillState(skill, Property.getValues(skill)));
+  }
+
+  /**
+   * Records everything that changed in the skills since the last commit, including skills that
+   * were added to or removed from the tree.
+   *
+   * @param mergeKey edits with the same key committed right after each other are merged, {@code
+   *     null} never merges
+   * @return whether anything has changed
+   */
+  public boolean commit(@Nullable Object mergeKey, Collection<ResourceLocation> skillIds) {
+    List<Change> changes = new ArrayList<>();
+    for (ResourceLocation skillId : skillIds) {
+      findChanges(skillId, changes);
+    }
+    if (changes.isEmpty()) return false;
+    long time = System.currentTimeMillis();
+    Edit lastEdit = undoEdits.peek();
+    boolean merge =
+        lastEdit != null
+            && mergeKey != null
+            && mergeKey.equals(lastMergeKey)
+            && time - lastCommitTime < MERGE_MILLIS;
+    if (merge) {
+      storedChanges -= lastEdit.changes.size();
+      changes.forEach(lastEdit::merge);
+      storedChanges += lastEdit.changes.size();
+      if (lastEdit.changes.isEmpty()) undoEdits.pop();
+    } else {
+      Edit edit = new Edit();
+      changes.forEach(edit::merge);
+      undoEdits.push(edit);
+      storedChanges += edit.changes.size();
+    }
+    lastMergeKey = mergeKey;
+    lastCommitTime = time;
+    redoEdits.forEach(edit -> storedChanges -= edit.changes.size());
+    redoEdits.clear();
+    dropOldestEdits();
+    return true;
+  }
+
+  public boolean canUndo() {
+    return !undoEdits.isEmpty();
+  }
+
+  public boolean canRedo() {
+    return !redoEdits.isEmpty();
+  }
+
+  /** @return ids of the skills the undone edit has touched, empty if there was nothing to undo */
+  public Set<ResourceLocation> undo() {
+    if (undoEdits.isEmpty()) return Set.of();
+    Edit edit = undoEdits.pop();
+    redoEdits.push(edit);
+    return apply(edit, true);
+  }
+
+  /** @return ids of the skills the redone edit has touched, empty if there was nothing to redo */
+  public Set<ResourceLocation> redo() {
+    if (redoEdits.isEmpty()) return Set.of();
+    Edit edit = redoEdits.pop();
+    undoEdits.push(edit);
+    return apply(edit, false);
+  }
+
+  private void findChanges(ResourceLocation skillId, List<Change> changes) {
+    SkillState knownState = knownStates.get(skillId);
+    PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+    if (skill == null || !skillTree.getSkillIds().contains(skillId)) {
+      if (knownState == null) return;
+      changes.add(new Change(skillId, null, knownState.skill, null));
+      knownStates.remove(skillId);
+      return;
+    }
+    if (knownState == null) {
+      changes.add(new Change(skillId, null, null, skill));
+      knownStates.put(skillId, new SkillState(skill, Property.getValues(skill)));
+      return;
+    }
+    Object[] knownValues = knownState.values;
+    for (Property property : Property.values()) {
+      Object value = property.getter.apply(skill);
+      Object knownValue = knownValues[property.ordinal()];
+      if (Objects.equals(value, knownValue)) continue;
+      value = Property.copy(value);
+      changes.add(new Change(skillId, property, knownValue, value));
+      knownValues[property.ordinal()] = value;
+    }
+  }
+
+  /** Applies all changes of the edit at once, saving every touched skill only once. */
+  private Set<ResourceLocation> apply(Edit edit, boolean undo) {
+    List<Change> changes = new ArrayList<>(edit.changes.values());
+    Set<ResourceLocation> touchedSkills = new LinkedHashSet<>();
+    boolean treeChanged = false;
+    for (int i = 0; i < changes.size(); i++) {
+      Change change = changes.get(undo ? changes.size() - 1 - i : i);
+      Object value = undo ? change.before : change.after;
+      touchedSkills.add(change.skillId);
+      if (change.property == null) {
+        setSkillExists(change.skillId, (PassiveSkill) value);
+        treeChanged = true;
+        continue;
+      }
+      PassiveSkill skill = SkillTreeClientData.getEditorSkill(change.skillId);
+      if (skill == null) continue;
+      change.property.setter.accept(skill, value);
+    }
+    for (ResourceLocation skillId : touchedSkills) {
+      PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+      if (skill != null) SkillTreeClientData.saveEditorSkill(skill);
+      refresh(skillId);
+    }
+    if (treeChanged) SkillTreeClientData.saveEditorSkillTree(skillTree);
+    lastMergeKey = null;
+    return touchedSkills;
+  }
+
+  private void setSkillExists(ResourceLocation skillId, @Nullable PassiveSkill skill) {
+    if (skill == null) {
+      PassiveSkill removedSkill = SkillTreeClientData.getEditorSkill(skillId);
+      if (removedSkill != null) SkillTreeClientData.deleteEditorSkill(removedSkill);
+      skillTree.getSkillIds().remove(skillId);
+    } else {
+      SkillTreeClientData.restoreEditorSkill(skill);
+      if (!skillTree.getSkillIds().contains(skillId)) skillTree.getSkillIds().add(skillId);
+    }
+  }
+
+  private void dropOldestEdits() {
+    while (undoEdits.size() > 1
+        && (undoEdits.size() > MAX_EDITS || storedChanges > MAX_CHANGES)) {
+      storedChanges -= undoEdits.removeLast().changes.size();
+    }
+  }
+
+  private enum Property {
+    POSITION_X(PassiveSkill::getPositionX, (s, v) -> s.setPosition((Float) v, s.getPositionY())),
+    POSITION_Y(PassiveSkill::getPositionY, (s, v) -> s.setPosition(s.getPositionX(), (Float) v)),
+    SIZE(PassiveSkill::getButtonSize, (s, v) -> s.setButtonSize((Integer) v)),
+    BACKGROUND(
+        PassiveSkill::getBackgroundTexture,
+        (s, v) -> s.setBackgroundTexture((ResourceLocation) v)),
+    ICON(PassiveSkill::getIconTexture, (s, v) -> s.setIconTexture((ResourceLocation) v)),
+    BORDER(PassiveSkill::getBorderTexture, (s, v) -> s.setBorderTexture((ResourceLocation) v)),
+    STARTING_POINT(PassiveSkill::isStartingPoint, (s, v) -> s.setStartingPoint((Boolean) v)),
+    CONNECTED_TREE(
+        PassiveSkill::getConnectedTreeId, (s, v) -> s.setConnectedTree((ResourceLocation) v)),
+    CONNECTIONS(PassiveSkill::getConnectedSkills, (s, v) -> replaceAll(s.getConnectedSkills(), v)),
+    GATEWAYS(
+        PassiveSkill::getConnectedAsGateways,
+        (s, v) -> replaceAll(s.getConnectedAsGateways(), v)),
+    BONUSES(PassiveSkill::getBonuses, (s, v) -> replaceAll(s.getBonuses(), v));
+
+    private final Function<PassiveSkill, Object> getter;
+    private final BiConsumer<PassiveSkill, Object> setter;
+
+    Property(Function<PassiveSkill, Object> getter, BiConsumer<PassiveSkill, Object> setter) {
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    private static Object[] getValues(PassiveSkill skill) {
+      Property[] properties = values();
+      Object[] values = new Object[properties.length];
+      for (Property property : properties) {
+        values[property.ordinal()] = copy(property.getter.apply(skill));
+      }
+      return values;
+    }
+
+    /** Lists are compared while they are still live and only copied once they have changed. */
+    private static Object copy(Object value) {
+      return value instanceof List<?> list ? List.copyOf(list) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void replaceAll(List<T> list, Object values) {
+      list.clear();
+      list.addAll((List<T>) values);
+    }
+  }
+
+  /** Last committed state of a skill, values are indexed by {@link Property#ordinal()}. */
+  private record SkillState(PassiveSkill skill, Object[] values) {}
+
+  /**
+   * A changed property of a skill. Changes without a property add or remove the skill, with the
+   * skill itself as the value.
+   */
+  private record Change(
+      ResourceLocation skillId,
+      @Nullable Property property,
+      @Nullable Object before,
+      @Nullable Object after) {}
+
+  private record ChangeKey(ResourceLocation skillId, @Nullable Property property) {}
+
+  /** Changes of one edit in the order they were made, at most one per skill property. */
+  private static class Edit {
+    private final Map<ChangeKey, Change> changes = new LinkedHashMap<>();
+
+    private void merge(Change change) {
+      ChangeKey key = new ChangeKey(change.skillId, change.property);
+      Change previous = changes.get(key);
+      if (previous == null) {
+        changes.put(key, change);
+        return;
+      }
+      if (Objects.equals(previous.before, change.after)) {
+        changes.remove(key);
+        return;
+      }
+      changes.put(key, new Change(change.skillId, change.property, previous.before, change.after));
+    }
+  }
+}
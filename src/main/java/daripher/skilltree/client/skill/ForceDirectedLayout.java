@@ -0,0 +1,379 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.SkillGraph;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Force directed layout of editor skills. Connected skills pull each other to a common distance
+ * while all skills push each other away, the pushing is approximated with a Barnes-Hut quadtree so
+ * a step takes {@code n log n} instead of {@code n²}. The simulation runs on its own thread and
+ * spreads the force calculation over the common pool, the editor polls the latest positions every
+ * frame. Skills that aren't laid out, starting points and gateways keep their positions but still
+ * push and pull the others.
+ */
+public class ForceDirectedLayout {
+  private static final int ITERATIONS = 400;
+  private static final int PUBLISH_INTERVAL = 4;
+  private static final int CHUNK_SIZE = 256;
+  private static final float THETA = 0.8F;
+  private static final float DEFAULT_EDGE_LENGTH = 40F;
+  private static final ExecutorService EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "Skill Tree Layout");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final SkillGraph graph;
+  private final BitSet movable = new BitSet();
+  private final float[] startPositions;
+  private volatile float[] latestPositions;
+  private volatile int iteration;
+  private volatile boolean cancelled;
+  private volatile boolean finished;
+  private @Nullable float[] polledPositions;
+
+  private ForceDirectedLayout(Collection<PassiveSkill> skills, Set<ResourceLocation> movableIds) {
+    this.graph = SkillGraph.of(skills);
+    this.startPositions = new float[graph.size() * 2];
+    BitSet pinned = getPinnedSkills();
+    for (int i = 0; i < graph.size(); i++) {
+      PassiveSkill skill = graph.getSkill(i);
+      startPositions[i * 2] = skill.getPositionX();
+      startPositions[i * 2 + 1] = skill.getPositionY();
+      if (!pinned.get(i) && movableIds.contains(skill.getId())) movable.set(i);
+    }
+    this.latestPositions = startPositions;
+    this.polledPositions = startPositions;
+  }
+
+  /**
+   * Starts laying out the skills on the layout thread.
+   *
+   * @param skills all skills of the tree, they take part in the simulation
+   * @param movableIds skills that are allowed to move
+   */
+  public static ForceDirectedLayout start(
+      Collection<PassiveSkill> skills, Set<ResourceLocation> movableIds) {
+    ForceDirectedLayout layout = new ForceDirectedLayout(skills, movableIds);
+    EXECUTOR.execute(layout::run);
+    return layout;
+  }
+
+  /** Starting points and gateways hold the tree together, so they are never moved. */
+  private BitSet getPinnedSkills() {
+    BitSet pinned = (BitSet) graph.getStartingPoints().clone();
+    for (int i = 0; i < graph.size(); i++) {
+      PassiveSkill skill = graph.getSkill(i);
+      if (skill.getConnectedTreeId() != null) pinned.set(i);
+      for (ResourceLocation gatewayId : skill.getConnectedAsGateways()) {
+        int gateway = graph.indexOf(gatewayId);
+        if (gateway == -1) continue;
+        pinned.set(i);
+        pinned.set(gateway);
+      }
+    }
+    return pinned;
+  }
+
+  public SkillGraph getGraph() {
+    return graph;
+  }
+
+  public boolean isMovable(int index) {
+    return movable.get(index);
+  }
+
+  /**
+   * @return positions published since the last poll, {@code x} and {@code y} of every skill after
+   *     each other in graph order, or {@code null} if nothing new was published
+   */
+  public @Nullable float[] pollPositions() {
+    float[] positions = latestPositions;
+    if (positions == polledPositions) return null;
+    polledPositions = positions;
+    return positions;
+  }
+
+  /** @return positions the skills had before the layout started, in the same format */
+  public float[] getStartPositions() {
+    return startPositions;
+  }
+
+  public float getProgress() {
+    return (float) iteration / ITERATIONS;
+  }
+
+  /** @return whether the simulation is over and its last positions were published */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  public void cancel() {
+    cancelled = true;
+  }
+
+  private void run() {
+    try {
+      simulate();
+    } catch (RuntimeException e) {
+      SkillTreeMod.LOGGER.error("Couldn't lay out skills", e);
+    }
+    finished = true;
+  }
+
+  private void simulate() {
+    int size = graph.size();
+    float[] positions = startPositions.clone();
+    float[] forces = new float[size * 2];
+    float edgeLength = getAverageEdgeLength(positions);
+    float temperature = Math.max(edgeLength, getExtent(positions) / 10F);
+    QuadTree quadTree = new QuadTree(size);
+    int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    for (int step = 0; step < ITERATIONS && !cancelled; step++) {
+      quadTree.build(positions, size);
+      IntStream.range(0, chunks)
+          .parallel()
+          .forEach(chunk -> calculateForces(quadTree, positions, forces, edgeLength, chunk));
+      float maxDistance = temperature * (1F - (float) step / ITERATIONS);
+      for (int i = movable.nextSetBit(0); i >= 0; i = movable.nextSetBit(i + 1)) {
+        float forceX = forces[i * 2];
+        float forceY = forces[i * 2 + 1];
+        float force = (float) Math.sqrt(forceX * forceX + forceY * forceY);
+        if (force == 0) continue;
+        float distance = Math.min(force, maxDistance);
+        positions[i * 2] += forceX / force * distance;
+        positions[i * 2 + 1] += forceY / force * distance;
+      }
+      iteration = step + 1;
+      if (step % PUBLISH_INTERVAL == 0) latestPositions = positions.clone();
+    }
+    latestPositions = positions;
+  }
+
+  /** Fruchterman-Reingold forces, k²/d away from every skill and d²/k towards neighbours. */
+  private void calculateForces(
+      QuadTree quadTree, float[] positions, float[] forces, float edgeLength, int chunk) {
+    int[] stack = new int[QuadTree.MAX_DEPTH * 3 + 4];
+    int end = Math.min(graph.size(), (chunk + 1) * CHUNK_SIZE);
+    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+      forces[i * 2] = 0;
+      forces[i * 2 + 1] = 0;
+      if (!movable.get(i)) continue;
+      quadTree.addRepulsion(i, positions, forces, edgeLength * edgeLength, stack);
+      float x = positions[i * 2];
+      float y = positions[i * 2 + 1];
+      for (int n = 0; n < graph.getDegree(i); n++) {
+        int neighbour = graph.getNeighbour(i, n);
+        float deltaX = positions[neighbour * 2] - x;
+        float deltaY = positions[neighbour * 2 + 1] - y;
+        float distance = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        forces[i * 2] += deltaX * distance / edgeLength;
+        forces[i * 2 + 1] += deltaY * distance / edgeLength;
+      }
+    }
+  }
+
+  private float getAverageEdgeLength(float[] positions) {
+    double total = 0;
+    int edges = 0;
+    for (int i = 0; i < graph.size(); i++) {
+      for (int n = 0; n < graph.getDegree(i); n++) {
+        int neighbour = graph.getNeighbour(i, n);
+        float deltaX = positions[neighbour * 2] - positions[i * 2];
+        float deltaY = positions[neighbour * 2 + 1] - positions[i * 2 + 1];
+        total += Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        edges++;
+      }
+    }
+    if (edges == 0 || total == 0) return DEFAULT_EDGE_LENGTH;
+    return (float) (total / edges);
+  }
+
+  private float getExtent(float[] positions) {
+    float min = Float.MAX_VALUE;
+    float max = -Float.MAX_VALUE;
+    for (float position : positions) {
+      min = Math.min(min, position);
+      max = Math.max(max, position);
+    }
+    return positions.length == 0 ? 0 : max - min;
+  }
+
+  /**
+   * Quadtree stored in flat arrays, so rebuilding it every step doesn't allocate. Children of a
+   * node are four consecutive nodes, every node keeps the mass and the mass center of its skills.
+   */
+  private static class QuadTree {
+    private static final int MAX_DEPTH = 24;
+    private float[] centerX;
+    private float[] centerY;
+    private float[] halfSize;
+    private float[] mass;
+    private float[] massX;
+    private float[] massY;
+    private int[] children;
+    private int[] body;
+    private int nodes;
+
+    private QuadTree(int bodies) {
+      allocate(bodies * 4 + 1);
+    }
+
+    private void allocate(int capacity) {
+      centerX = new float[capacity];
+      centerY = new float[capacity];
+      halfSize = new float[capacity];
+      mass = new float[capacity];
+      massX = new float[capacity];
+      massY = new float[capacity];
+      children = new int[capacity];
+      body = new int[capacity];
+    }
+
+    private void build(float[] positions, int bodies) {
+      float minX = Float.MAX_VALUE;
+      float minY = Float.MAX_VALUE;
+      float maxX = -Float.MAX_VALUE;
+      float maxY = -Float.MAX_VALUE;
+      for (int i = 0; i < bodies; i++) {
+        minX = Math.min(minX, positions[i * 2]);
+        minY = Math.min(minY, positions[i * 2 + 1]);
+        maxX = Math.max(maxX, positions[i * 2]);
+        maxY = Math.max(maxY, positions[i * 2 + 1]);
+      }
+      nodes = 0;
+      float half = Math.max(1F, Math.max(maxX - minX, maxY - minY) / 2F + 1F);
+      addNode((minX + maxX) / 2F, (minY + maxY) / 2F, half);
+      for (int i = 0; i < bodies; i++) {
+        insert(i, positions[i * 2], positions[i * 2 + 1]);
+      }
+    }
+
+    private int addNode(float x, float y, float half) {
+      if (nodes == children.length) grow();
+      centerX[nodes] = x;
+      centerY[nodes] = y;
+      halfSize[nodes] = half;
+      mass[nodes] = 0;
+      massX[nodes] = 0;
+      massY[nodes] = 0;
+      children[nodes] = -1;
+      body[nodes] = -1;
+      return nodes++;
+    }
+
+    private void grow() {
+      int capacity = children.length * 2;
+      float[][] floats = {centerX, centerY, halfSize, mass, massX, massY};
+      int[][] ints = {children, body};
+      allocate(capacity);
+      float[][] grownFloats = {centerX, centerY, halfSize, mass, massX, massY};
+      int[][] grownInts = {children, body};
+      for (int i = 0; i < floats.length; i++) {
+        System.arraycopy(floats[i], 0, grownFloats[i], 0, nodes);
+      }
+      for (int i = 0; i < ints.length; i++) {
+        System.arraycopy(ints[i], 0, grownInts[i], 0, nodes);
+      }
+    }
+
+    private void insert(int index, float x, float y) {
+      int node = 0;
+      for (int depth = 0; ; depth++) {
+        if (children[node] == -1) {
+          if (mass[node] == 0) {
+            body[node] = index;
+            addMass(node, x, y);
+            return;
+          }
+          // skills in the same spot share the deepest node
+          if (depth >= MAX_DEPTH) {
+            addMass(node, x, y);
+            return;
+          }
+          split(node);
+        }
+        addMass(node, x, y);
+        node = getChild(node, x, y);
+      }
+    }
+
+    /** Moves the skill stored in the leaf into one of its new children. */
+    private void split(int node) {
+      float half = halfSize[node] / 2F;
+      int firstChild = addNode(centerX[node] - half, centerY[node] - half, half);
+      addNode(centerX[node] + half, centerY[node] - half, half);
+      addNode(centerX[node] - half, centerY[node] + half, half);
+      addNode(centerX[node] + half, centerY[node] + half, half);
+      children[node] = firstChild;
+      float x = massX[node] / mass[node];
+      float y = massY[node] / mass[node];
+      int child = getChild(node, x, y);
+      body[child] = body[node];
+      mass[child] = mass[node];
+      massX[child] = massX[node];
+      massY[child] = massY[node];
+      body[node] = -1;
+    }
+
+    private int getChild(int node, float x, float y) {
+      int quadrant = (x < centerX[node] ? 0 : 1) + (y < centerY[node] ? 0 : 2);
+      return children[node] + quadrant;
+    }
+
+    private void addMass(int node, float x, float y) {
+      mass[node]++;
+      massX[node] += x;
+      massY[node] += y;
+    }
+
+    /** Adds the push of all other skills, far away groups of skills are treated as one. */
+    private void addRepulsion(
+        int index, float[] positions, float[] forces, float strength, int[] stack) {
+      float x = positions[index * 2];
+      float y = positions[index * 2 + 1];
+      int top = 0;
+      stack[top++] = 0;
+      while (top > 0) {
+        int node = stack[--top];
+        float nodeMass = mass[node];
+        if (nodeMass == 0) continue;
+        boolean leaf = children[node] == -1;
+        if (leaf && body[node] == index) {
+          // the skill itself, possibly sharing the node with skills in the same spot
+          nodeMass--;
+          if (nodeMass == 0) continue;
+        }
+        float deltaX = x - massX[node] / mass[node];
+        float deltaY = y - massY[node] / mass[node];
+        float distanceSqr = deltaX * deltaX + deltaY * deltaY;
+        float nodeSize = halfSize[node] * 2F;
+        if (leaf || nodeSize * nodeSize < THETA * THETA * distanceSqr) {
+          if (distanceSqr < 0.01F) {
+            // push skills in the same spot apart in a direction that depends on the skill
+            deltaX = (float) Math.cos(index);
+            deltaY = (float) Math.sin(index);
+            distanceSqr = 1F;
+          }
+          forces[index * 2] += deltaX * strength * nodeMass / distanceSqr;
+          forces[index * 2 + 1] += deltaY * strength * nodeMass / distanceSqr;
+          continue;
+        }
+        int firstChild = children[node];
+        for (int child = firstChild; child < firstChild + 4; child++) {
+          if (mass[child] > 0) stack[top++] = child;
+        }
+      }
+    }
+  }
+}
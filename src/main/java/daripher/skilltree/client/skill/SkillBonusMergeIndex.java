@@ -0,0 +1,115 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.bonus.SkillBonus;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import net.minecraft.network.chat.MutableComponent;
+
+/**
+ * Bonuses of learned skills merged together for the stats list. Bonuses are grouped by their merge
+ * key, so adding one only compares it to the merged bonuses of its group, and every merged bonus
+ * keeps its tooltip until something is merged into it.
+ */
+public class SkillBonusMergeIndex {
+  private static final Pattern NUMBERS_PATTERN = Pattern.compile("\\+?-?[0-9]+\\.?[0-9]?%?");
+  private final Map<Object, List<MergedBonus>> groups = new HashMap<>();
+  private @Nullable List<MutableComponent> tooltips;
+
+  public void addSkill(PassiveSkill skill) {
+    skill.getBonuses().forEach(this::addBonus);
+  }
+
+  public void removeSkill(PassiveSkill skill) {
+    skill.getBonuses().forEach(this::removeBonus);
+  }
+
+  public void clear() {
+    groups.clear();
+    tooltips = null;
+  }
+
+  /** @return tooltips of the merged bonuses sorted by their text without numbers */
+  public List<MutableComponent> getTooltips() {
+    if (tooltips == null) {
+      tooltips =
+          groups.values().stream()
+              .flatMap(List::stream)
+              .sorted(Comparator.comparing(MergedBonus::getSortingKey))
+              .map(MergedBonus::getTooltip)
+              .toList();
+    }
+    return tooltips;
+  }
+
+  private void addBonus(SkillBonus<?> bonus) {
+    List<MergedBonus> group = groups.computeIfAbsent(bonus.getMergeKey(), k -> new ArrayList<>());
+    tooltips = null;
+    for (MergedBonus merged : group) {
+      if (bonus.canMerge(merged.bonus)) {
+        merged.add(bonus);
+        return;
+      }
+    }
+    group.add(new MergedBonus(bonus));
+  }
+
+  private void removeBonus(SkillBonus<?> bonus) {
+    List<MergedBonus> group = groups.get(bonus.getMergeKey());
+    if (group == null) return;
+    for (MergedBonus merged : group) {
+      if (!merged.sources.remove(bonus)) continue;
+      tooltips = null;
+      if (merged.sources.isEmpty()) group.remove(merged);
+      else merged.remerge();
+      if (group.isEmpty()) groups.remove(bonus.getMergeKey());
+      return;
+    }
+  }
+
+  private static class MergedBonus {
+    private final List<SkillBonus<?>> sources = new ArrayList<>();
+    private SkillBonus<?> bonus;
+    private @Nullable MutableComponent tooltip;
+    private @Nullable String sortingKey;
+
+    private MergedBonus(SkillBonus<?> bonus) {
+      this.bonus = bonus;
+      sources.add(bonus);
+    }
+
+    private void add(SkillBonus<?> other) {
+      sources.add(other);
+      bonus = bonus.merge(other);
+      tooltip = null;
+      sortingKey = null;
+    }
+
+    /** Merging can't be undone, so the sources left after a removal are merged again. */
+    private void remerge() {
+      bonus = sources.get(0);
+      for (int i = 1; i < sources.size(); i++) {
+        bonus = bonus.merge(sources.get(i));
+      }
+      tooltip = null;
+      sortingKey = null;
+    }
+
+    private MutableComponent getTooltip() {
+      if (tooltip == null) tooltip = bonus.getTooltip();
+      return tooltip;
+    }
+
+    private String getSortingKey() {
+      if (sortingKey == null) {
+        sortingKey = NUMBERS_PATTERN.matcher(getTooltip().getString()).replaceAll("");
+      }
+      return sortingKey;
+    }
+  }
+}
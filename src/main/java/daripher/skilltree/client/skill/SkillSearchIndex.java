@@ -0,0 +1,182 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.bonus.SkillBonus;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Inverted index from words of skill titles, descriptions and bonus tooltips to the skills they
+ * appear in. The texts depend on the client language, so the index remembers the language it was
+ * built in. Words are kept sorted, which turns a prefix lookup into a binary search followed by a
+ * walk over the words sharing that prefix.
+ */
+public class SkillSearchIndex {
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final int TITLE_WEIGHT = 4;
+  private static final int TEXT_WEIGHT = 1;
+  private final String language;
+  private final ResourceLocation[] skills;
+  private final String[] words;
+  private final int[][] postings;
+  private final int[][] weights;
+  private final int[] matchedWords;
+  private final int[] scores;
+  private final IntArrayList candidates = new IntArrayList();
+
+  private SkillSearchIndex(
+      String language, ResourceLocation[] skills, Map<String, Int2IntOpenHashMap> index) {
+    this.language = language;
+    this.skills = skills;
+    this.words = index.keySet().toArray(String[]::new);
+    Arrays.sort(words);
+    this.postings = new int[words.length][];
+    this.weights = new int[words.length][];
+    for (int i = 0; i < words.length; i++) {
+      Int2IntOpenHashMap skillWeights = index.get(words[i]);
+      int[] wordSkills = skillWeights.keySet().toIntArray();
+      IntArrays.quickSort(wordSkills);
+      int[] wordWeights = new int[wordSkills.length];
+      for (int j = 0; j < wordSkills.length; j++) {
+        wordWeights[j] = skillWeights.get(wordSkills[j]);
+      }
+      postings[i] = wordSkills;
+      weights[i] = wordWeights;
+    }
+    this.matchedWords = new int[skills.length];
+    this.scores = new int[skills.length];
+  }
+
+  public static SkillSearchIndex build(String language, Collection<PassiveSkill> skills) {
+    ResourceLocation[] ids = new ResourceLocation[skills.size()];
+    Map<String, Int2IntOpenHashMap> index = new HashMap<>();
+    int skillIndex = 0;
+    for (PassiveSkill skill : skills) {
+      ids[skillIndex] = skill.getId();
+      String skillKey = "skill." + skill.getId().getNamespace() + "." + skill.getId().getPath();
+      addText(index, skillIndex, getTranslation(skillKey + ".name"), TITLE_WEIGHT);
+      String description = getTranslation(skillKey + ".description");
+      if (description != null) {
+        for (String line : description.split("/n")) {
+          addText(index, skillIndex, Component.translatable(line).getString(), TEXT_WEIGHT);
+        }
+      }
+      for (SkillBonus<?> bonus : skill.getBonuses()) {
+        addText(index, skillIndex, bonus.getTooltip().getString(), TEXT_WEIGHT);
+      }
+      skillIndex++;
+    }
+    return new SkillSearchIndex(language, ids, index);
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  /**
+   * Every word of the query has to be the beginning of a word of the skill. Skills are ranked by
+   * the weights of the words they matched, with title words weighing more than the rest and whole
+   * words more than prefixes.
+   *
+   * @return ids of the matching skills, the best matches first
+   */
+  public List<ResourceLocation> search(String query) {
+    String[] queryWords = getWords(query);
+    if (queryWords.length == 0) return List.of();
+    resetCandidates();
+    for (int queryWord = 0; queryWord < queryWords.length; queryWord++) {
+      String prefix = queryWords[queryWord];
+      int first = Arrays.binarySearch(words, prefix);
+      if (first < 0) first = -first - 1;
+      for (int word = first; word < words.length && words[word].startsWith(prefix); word++) {
+        int multiplier = words[word].length() == prefix.length() ? 2 : 1;
+        matchWord(word, queryWord, multiplier);
+      }
+      dropUnmatchedCandidates(queryWord + 1);
+      if (candidates.isEmpty()) return List.of();
+    }
+    int[] found = candidates.toIntArray();
+    IntArrays.quickSort(found, (a, b) -> scores[a] != scores[b] ? scores[b] - scores[a] : a - b);
+    List<ResourceLocation> results = new ArrayList<>(found.length);
+    for (int skill : found) {
+      results.add(skills[skill]);
+    }
+    return results;
+  }
+
+  private void matchWord(int word, int queryWord, int multiplier) {
+    int[] wordSkills = postings[word];
+    int[] wordWeights = weights[word];
+    for (int i = 0; i < wordSkills.length; i++) {
+      int skill = wordSkills[i];
+      int matched = matchedWords[skill];
+      // the skill has already missed one of the previous words
+      if (matched < queryWord) continue;
+      if (matched == queryWord) {
+        matchedWords[skill] = queryWord + 1;
+        if (queryWord == 0) candidates.add(skill);
+      }
+      scores[skill] += wordWeights[i] * multiplier;
+    }
+  }
+
+  /** Skills that matched the previous words, but not the last one, drop out. */
+  private void dropUnmatchedCandidates(int matched) {
+    int kept = 0;
+    for (int i = 0; i < candidates.size(); i++) {
+      int skill = candidates.getInt(i);
+      if (matchedWords[skill] == matched) {
+        candidates.set(kept++, skill);
+      } else {
+        matchedWords[skill] = 0;
+        scores[skill] = 0;
+      }
+    }
+    candidates.size(kept);
+  }
+
+  private void resetCandidates() {
+    for (int i = 0; i < candidates.size(); i++) {
+      int skill = candidates.getInt(i);
+      matchedWords[skill] = 0;
+      scores[skill] = 0;
+    }
+    candidates.clear();
+  }
+
+  private static void addText(
+      Map<String, Int2IntOpenHashMap> index, int skill, @Nullable String text, int weight) {
+    if (text == null) return;
+    for (String word : getWords(text)) {
+      Int2IntOpenHashMap skillWeights = index.computeIfAbsent(word, w -> new Int2IntOpenHashMap());
+      skillWeights.put(skill, Math.max(skillWeights.get(skill), weight));
+    }
+  }
+
+  private static String[] getWords(String text) {
+    String plainText = ChatFormatting.stripFormatting(text);
+    if (plainText == null) return new String[0];
+    String[] words = WORD_SEPARATOR.split(plainText.toLowerCase(Locale.ROOT).strip());
+    if (words.length > 0 && words[0].isEmpty()) return Arrays.copyOfRange(words, 1, words.length);
+    return words;
+  }
+
+  /** @return translation of the key, or null if the key isn't translated */
+  private static @Nullable String getTranslation(String key) {
+    String translation = Component.translatable(key).getString();
+    return translation.equals(key) ? null : translation;
+  }
+}
@@ -0,0 +1,76 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.skill.PassiveSkill;
+import java.util.Collection;
+import net.minecraft.util.Mth;
+
+/**
+ * Bulk position changes for editor skills. Rotating, scaling and mirroring happen around the
+ * center of the skills bounds. Every operation is a single pass over the skills that only changes
+ * their positions, saving and recording the change is left to the editor.
+ */
+public class SkillTransforms {
+  public static void translate(Collection<PassiveSkill> skills, float x, float y) {
+    for (PassiveSkill skill : skills) {
+      skill.setPosition(skill.getPositionX() + x, skill.getPositionY() + y);
+    }
+  }
+
+  public static void rotate(Collection<PassiveSkill> skills, float degrees) {
+    float[] center = getCenter(skills);
+    float angle = degrees * Mth.DEG_TO_RAD;
+    float sin = Mth.sin(angle);
+    float cos = Mth.cos(angle);
+    for (PassiveSkill skill : skills) {
+      float x = skill.getPositionX() - center[0];
+      float y = skill.getPositionY() - center[1];
+      skill.setPosition(center[0] + x * cos - y * sin, center[1] + x * sin + y * cos);
+    }
+  }
+
+  public static void scale(Collection<PassiveSkill> skills, float factor) {
+    float[] center = getCenter(skills);
+    for (PassiveSkill skill : skills) {
+      float x = center[0] + (skill.getPositionX() - center[0]) * factor;
+      float y = center[1] + (skill.getPositionY() - center[1]) * factor;
+      skill.setPosition(x, y);
+    }
+  }
+
+  /** @param horizontally whether to swap left and right, otherwise top and bottom are swapped */
+  public static void mirror(Collection<PassiveSkill> skills, boolean horizontally) {
+    float[] center = getCenter(skills);
+    for (PassiveSkill skill : skills) {
+      float x = skill.getPositionX();
+      float y = skill.getPositionY();
+      if (horizontally) x = center[0] * 2 - x;
+      else y = center[1] * 2 - y;
+      skill.setPosition(x, y);
+    }
+  }
+
+  public static void alignToGrid(Collection<PassiveSkill> skills, float gridSize) {
+    if (gridSize <= 0) return;
+    for (PassiveSkill skill : skills) {
+      float x = Math.round(skill.getPositionX() / gridSize) * gridSize;
+      float y = Math.round(skill.getPositionY() / gridSize) * gridSize;
+      skill.setPosition(x, y);
+    }
+  }
+
+  /** @return center of the skills bounds as {@code {x, y}} */
+  public static float[] getCenter(Collection<PassiveSkill> skills) {
+    if (skills.isEmpty()) return new float[2];
+    float minX = Float.MAX_VALUE;
+    float minY = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE;
+    float maxY = -Float.MAX_VALUE;
+    for (PassiveSkill skill : skills) {
+      minX = Math.min(minX, skill.getPositionX());
+      minY = Math.min(minY, skill.getPositionY());
+      maxX = Math.max(maxX, skill.getPositionX());
+      maxY = Math.max(maxY, skill.getPositionY());
+    }
+    return new float[] {(minX + maxX) / 2, (minY + maxY) / 2};
+  }
+}
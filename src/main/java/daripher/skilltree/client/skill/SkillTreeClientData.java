@@ -1,20 +1,31 @@
 package daripher.skilltree.client.skill;
 
-import com.google.gson.JsonIOException;
 import com.google.gson.stream.JsonReader;
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.client.tooltip.SkillTooltipCache;
 import daripher.skilltree.data.reloader.SkillTreesReloader;
 import daripher.skilltree.data.reloader.SkillsReloader;
 import daripher.skilltree.network.NetworkHelper;
 import daripher.skilltree.skill.PassiveSkill;
 import daripher.skilltree.skill.PassiveSkillTree;
+import daripher.skilltree.skill.SkillGraph;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.fml.loading.FMLPaths;
@@ -24,10 +35,15 @@ public class SkillTreeClientData {
   private static final Map<ResourceLocation, PassiveSkillTree> SKILL_TREES = new HashMap<>();
   private static final Map<ResourceLocation, PassiveSkill> EDITOR_PASSIVE_SKILLS = new HashMap<>();
   private static final Map<ResourceLocation, PassiveSkillTree> EDITOR_TREES = new HashMap<>();
+  private static @Nullable SkillGraph skill_graph;
+  private static @Nullable SkillSearchIndex search_index;
 
   public static void loadFromByteBuf(FriendlyByteBuf buf) {
     PASSIVE_SKILLS.clear();
     SKILL_TREES.clear();
+    skill_graph = null;
+    search_index = null;
+    SkillTooltipCache.clear();
     List<PassiveSkill> skills = NetworkHelper.readPassiveSkills(buf);
     skills.forEach(SkillTreeClientData::storeSkill);
     List<PassiveSkillTree> skillTrees = NetworkHelper.readPassiveSkillTrees(buf);
@@ -52,6 +68,20 @@ public class SkillTreeClientData {
     return PASSIVE_SKILLS.get(id);
   }
 
+  public static SkillGraph getSkillGraph() {
+    if (skill_graph == null) skill_graph = SkillGraph.of(PASSIVE_SKILLS.values());
+    return skill_graph;
+  }
+
+  /** The index is built on first use after a catalog load, and again if the language changed. */
+  public static SkillSearchIndex getSearchIndex() {
+    String language = Minecraft.getInstance().getLanguageManager().getSelected().getCode();
+    if (search_index == null || !search_index.getLanguage().equals(language)) {
+      search_index = SkillSearchIndex.build(language, PASSIVE_SKILLS.values());
+    }
+    return search_index;
+  }
+
   public static PassiveSkill getEditorSkill(ResourceLocation id) {
     return EDITOR_PASSIVE_SKILLS.get(id);
   }
@@ -60,42 +90,43 @@ public class SkillTreeClientData {
     return SKILL_TREES.get(id);
   }
 
+  /**
+   * Loads the editor copy of the tree and its skills. Saved files are found with a single walk
+   * over the saves folder instead of checking every skill, skills missing from it are copied from
+   * the server in one batch, and then all of them are parsed in parallel.
+   */
   public static PassiveSkillTree getOrCreateEditorTree(ResourceLocation treeId) {
-    File skillTreeSavesFolder = getSkillTreeSavesFolder(treeId);
-    if (!skillTreeSavesFolder.exists()) {
-      skillTreeSavesFolder.mkdirs();
-    }
-    if (!getSkillTreeSaveFile(treeId).exists() && SKILL_TREES.containsKey(treeId)) {
+    // files saved in this session have to be on disk before the folder is walked
+    EditorDataWriter.flush();
+    Set<Path> savedFiles = findSavedFiles();
+    if (!savedFiles.contains(getSavePath(getSkillTreeSaveFile(treeId)))
+        && SKILL_TREES.containsKey(treeId)) {
       saveEditorSkillTree(SKILL_TREES.get(treeId));
     }
     if (!EDITOR_TREES.containsKey(treeId)) {
       loadEditorSkillTree(treeId);
     }
     PassiveSkillTree skillTree = EDITOR_TREES.getOrDefault(treeId, new PassiveSkillTree(treeId));
-    skillTree
-        .getSkillIds()
-        .forEach(
-            skillId -> {
-              File skillSavesFolder = getSkillSavesFolder(skillId);
-              if (!skillSavesFolder.exists()) {
-                skillSavesFolder.mkdirs();
-              }
-              if (!getSkillSaveFile(skillId).exists() && PASSIVE_SKILLS.containsKey(skillId)) {
-                saveEditorSkill(PASSIVE_SKILLS.get(skillId));
-              }
-              if (!EDITOR_PASSIVE_SKILLS.containsKey(skillId)) {
-                loadEditorSkill(skillId);
-              }
-            });
+    List<ResourceLocation> skillsToLoad = new ArrayList<>();
+    for (ResourceLocation skillId : skillTree.getSkillIds()) {
+      if (EDITOR_PASSIVE_SKILLS.containsKey(skillId)) continue;
+      boolean saved = savedFiles.contains(getSavePath(getSkillSaveFile(skillId)));
+      if (!saved && PASSIVE_SKILLS.containsKey(skillId)) {
+        saveEditorSkill(PASSIVE_SKILLS.get(skillId));
+      }
+      skillsToLoad.add(skillId);
+    }
+    // copied skills have to be written before they can be loaded
+    EditorDataWriter.flush();
+    Map<ResourceLocation, PassiveSkill> loadedSkills = readSkills(skillsToLoad);
+    EDITOR_PASSIVE_SKILLS.putAll(loadedSkills);
+    loadedSkills.keySet().forEach(SkillTooltipCache::invalidate);
     return skillTree;
   }
 
   public static void saveEditorSkillTree(PassiveSkillTree skillTree) {
-    try (FileWriter writer = new FileWriter(getSkillTreeSaveFile(skillTree.getId()))) {
-      SkillTreesReloader.GSON.toJson(skillTree, writer);
-    } catch (JsonIOException | IOException e) {
-      e.printStackTrace();
-    }
+    File file = getSkillTreeSaveFile(skillTree.getId());
+    EditorDataWriter.save(file, skillTree, SkillTreesReloader.GSON);
   }
 
   public static void loadEditorSkillTree(ResourceLocation treeId) {
@@ -108,24 +139,29 @@ public class SkillTreeClientData {
   }
 
   public static void saveEditorSkill(PassiveSkill skill) {
-    try (FileWriter writer = new FileWriter(getSkillSaveFile(skill.getId()))) {
-      SkillsReloader.GSON.toJson(skill, writer);
-    } catch (JsonIOException | IOException e) {
-      e.printStackTrace();
-    }
+    EditorDataWriter.save(getSkillSaveFile(skill.getId()), skill, SkillsReloader.GSON);
+    SkillTooltipCache.invalidate(skill.getId());
   }
 
   public static void loadEditorSkill(ResourceLocation skillId) {
     PassiveSkill skill = readFromFile(PassiveSkill.class, getSkillSaveFile(skillId));
     EDITOR_PASSIVE_SKILLS.put(skillId, skill);
+    SkillTooltipCache.invalidate(skillId);
+  }
+
+  /** Puts a previously deleted skill back into the editor and saves it again. */
+  public static void restoreEditorSkill(PassiveSkill skill) {
+    EDITOR_PASSIVE_SKILLS.put(skill.getId(), skill);
+    saveEditorSkill(skill);
   }
 
   public static void deleteEditorSkill(PassiveSkill skill) {
-    getSkillSaveFile(skill.getId()).delete();
+    EditorDataWriter.delete(getSkillSaveFile(skill.getId()));
     EDITOR_PASSIVE_SKILLS.remove(skill.getId());
+    SkillTooltipCache.invalidate(skill.getId());
   }
 
-  private static File getSavesFolder() {
+  static File getSavesFolder() {
     return new File(FMLPaths.GAMEDIR.get().toFile(), "skilltree/editor/data");
   }
 
@@ -145,9 +181,53 @@ public class SkillTreeClientData {
     return new File(getSkillTreeSavesFolder(skillTreeId), skillTreeId.getPath() + ".json");
   }
 
+  /** Writes pending editor saves and waits for them, should be called when the editor closes. */
+  public static void flushEditorSaves() {
+    EditorDataWriter.flush();
+  }
+
+  /** Lists every saved editor file with a single walk over the saves folder. */
+  private static Set<Path> findSavedFiles() {
+    Path savesFolder = getSavesFolder().toPath();
+    if (!Files.isDirectory(savesFolder)) return Set.of();
+    try (Stream<Path> files = Files.walk(savesFolder)) {
+      return files
+          .filter(path -> path.toString().endsWith(".json"))
+          .map(Path::toAbsolutePath)
+          .map(Path::normalize)
+          .collect(Collectors.toUnmodifiableSet());
+    } catch (IOException | UncheckedIOException e) {
+      SkillTreeMod.LOGGER.error("Couldn't list editor files", e);
+      return Set.of();
+    }
+  }
+
+  private static Path getSavePath(File file) {
+    return file.toPath().toAbsolutePath().normalize();
+  }
+
+  /** Parses the skill files in parallel, skills that couldn't be read are left out. */
+  private static Map<ResourceLocation, PassiveSkill> readSkills(List<ResourceLocation> skillIds) {
+    PassiveSkill[] skills = new PassiveSkill[skillIds.size()];
+    IntStream.range(0, skills.length)
+        .parallel()
+        .forEach(i -> skills[i] = parseFile(PassiveSkill.class, getSkillSaveFile(skillIds.get(i))));
+    Map<ResourceLocation, PassiveSkill> loadedSkills = new HashMap<>();
+    for (int i = 0; i < skills.length; i++) {
+      if (skills[i] != null) loadedSkills.put(skillIds.get(i), skills[i]);
+    }
+    return Collections.unmodifiableMap(loadedSkills);
+  }
+
   private static <T> T readFromFile(Class<T> objectType, File file) {
+    if (EditorDataWriter.hasPendingWrite(file)) EditorDataWriter.flush();
+    return parseFile(objectType, file);
+  }
+
+  private static <T> T parseFile(Class<T> objectType, File file) {
     T object = null;
-    try (JsonReader reader = new JsonReader(new FileReader(file))) {
+    try (JsonReader reader =
+        new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
       object = SkillsReloader.GSON.fromJson(reader, objectType);
     } catch (Exception e) {
       e.printStackTrace();
@@ -0,0 +1,201 @@
+package daripher.skilltree.client.skill;
+
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.PassiveSkillTree;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Finds problems in an edited skill tree that would otherwise only show up once the tree is loaded
+ * from a datapack. The validator keeps the connections of every skill together with a reverse
+ * index of who connects to whom, so an edit only re-checks the edited skills and the skills
+ * connected to them. Reachability from the starting points is only recalculated when connections,
+ * starting points or the skills themselves change, and the skill list of the tree only when its
+ * size changes, so edits of values and positions stay cheap enough for every keystroke.
+ */
+public class SkillTreeValidator {
+  private static final Comparator<Issue> ISSUE_ORDER =
+      Comparator.comparing(Issue::type)
+          .thenComparing(issue -> issue.skillId() == null ? "" : issue.skillId().toString());
+  private final PassiveSkillTree skillTree;
+  private final Map<ResourceLocation, List<ResourceLocation>> connections = new HashMap<>();
+  private final Map<ResourceLocation, Set<ResourceLocation>> connectedFrom = new HashMap<>();
+  private final Set<ResourceLocation> startingPoints = new HashSet<>();
+  private final Map<ResourceLocation, List<Issue>> skillIssues = new HashMap<>();
+  private final List<Issue> reachabilityIssues = new ArrayList<>();
+  private final List<Issue> skillListIssues = new ArrayList<>();
+  private @Nullable List<Issue> issues;
+  private int checkedSkillListSize = -1;
+
+  public SkillTreeValidator(PassiveSkillTree skillTree) {
+    this.skillTree = skillTree;
+    update(new LinkedHashSet<>(skillTree.getSkillIds()));
+  }
+
+  /** Re-checks the skills after they were edited, added or removed. */
+  public void update(Collection<ResourceLocation> skillIds) {
+    Set<ResourceLocation> affectedSkills = new HashSet<>(skillIds);
+    boolean graphChanged = false;
+    for (ResourceLocation skillId : skillIds) {
+      PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+      List<ResourceLocation> oldConnections = connections.get(skillId);
+      List<ResourceLocation> newConnections = skill == null ? null : getConnections(skill);
+      boolean startingPoint = skill != null && skill.isStartingPoint();
+      if (startingPoint != startingPoints.contains(skillId)) {
+        if (startingPoint) startingPoints.add(skillId);
+        else startingPoints.remove(skillId);
+        graphChanged = true;
+      }
+      if (oldConnections == null ? newConnections == null : oldConnections.equals(newConnections)) {
+        continue;
+      }
+      graphChanged = true;
+      if (oldConnections != null) {
+        oldConnections.forEach(target -> removeConnection(skillId, target));
+        affectedSkills.addAll(oldConnections);
+      }
+      if (newConnections != null) {
+        newConnections.forEach(target -> addConnection(skillId, target));
+        connections.put(skillId, newConnections);
+      } else {
+        connections.remove(skillId);
+      }
+      // skills connected to an added or removed skill may have gained or lost a dangling connection
+      if ((oldConnections == null) != (newConnections == null)) {
+        affectedSkills.addAll(connectedFrom.getOrDefault(skillId, Set.of()));
+      }
+    }
+    affectedSkills.forEach(this::checkSkill);
+    if (graphChanged) checkReachability();
+    if (skillTree.getSkillIds().size() != checkedSkillListSize) checkSkillList();
+    issues = null;
+  }
+
+  /** @return all found issues, ordered by their type */
+  public List<Issue> getIssues() {
+    if (issues == null) {
+      List<Issue> allIssues = new ArrayList<>(skillListIssues);
+      skillIssues.values().forEach(allIssues::addAll);
+      allIssues.addAll(reachabilityIssues);
+      allIssues.sort(ISSUE_ORDER);
+      issues = List.copyOf(allIssues);
+    }
+    return issues;
+  }
+
+  private static List<ResourceLocation> getConnections(PassiveSkill skill) {
+    List<ResourceLocation> connections = new ArrayList<>(skill.getConnectedSkills());
+    connections.addAll(skill.getConnectedAsGateways());
+    return connections;
+  }
+
+  private void addConnection(ResourceLocation skillId, ResourceLocation target) {
+    connectedFrom.computeIfAbsent(target, id -> new HashSet<>()).add(skillId);
+  }
+
+  private void removeConnection(ResourceLocation skillId, ResourceLocation target) {
+    Set<ResourceLocation> sources = connectedFrom.get(target);
+    if (sources == null) return;
+    sources.remove(skillId);
+    if (sources.isEmpty()) connectedFrom.remove(target);
+  }
+
+  private void checkSkill(ResourceLocation skillId) {
+    PassiveSkill skill = SkillTreeClientData.getEditorSkill(skillId);
+    if (skill == null || !connections.containsKey(skillId)) {
+      skillIssues.remove(skillId);
+      return;
+    }
+    List<Issue> foundIssues = new ArrayList<>();
+    for (ResourceLocation target : skill.getConnectedSkills()) {
+      if (SkillTreeClientData.getEditorSkill(target) != null) continue;
+      foundIssues.add(new Issue(IssueType.DANGLING_CONNECTION, skillId, target));
+    }
+    for (ResourceLocation target : skill.getConnectedAsGateways()) {
+      if (SkillTreeClientData.getEditorSkill(target) != null) continue;
+      foundIssues.add(new Issue(IssueType.DANGLING_GATEWAY, skillId, target));
+    }
+    ResourceLocation connectedTree = skill.getConnectedTreeId();
+    if (connectedTree != null && !SkillTreeClientData.getAllTreesIds().contains(connectedTree)) {
+      foundIssues.add(new Issue(IssueType.MISSING_TREE, skillId, connectedTree));
+    }
+    if (foundIssues.isEmpty()) skillIssues.remove(skillId);
+    else skillIssues.put(skillId, foundIssues);
+  }
+
+  /** Walks the connections in both directions from every starting point. */
+  private void checkReachability() {
+    reachabilityIssues.clear();
+    if (connections.isEmpty()) return;
+    if (startingPoints.isEmpty()) {
+      reachabilityIssues.add(new Issue(IssueType.NO_STARTING_POINT, null, null));
+      return;
+    }
+    Set<ResourceLocation> reached = new HashSet<>(startingPoints);
+    Deque<ResourceLocation> queue = new ArrayDeque<>(startingPoints);
+    while (!queue.isEmpty()) {
+      ResourceLocation skillId = queue.poll();
+      for (ResourceLocation target : connections.getOrDefault(skillId, List.of())) {
+        if (connections.containsKey(target) && reached.add(target)) queue.add(target);
+      }
+      for (ResourceLocation source : connectedFrom.getOrDefault(skillId, Set.of())) {
+        if (connections.containsKey(source) && reached.add(source)) queue.add(source);
+      }
+    }
+    for (ResourceLocation skillId : connections.keySet()) {
+      if (reached.contains(skillId)) continue;
+      reachabilityIssues.add(new Issue(IssueType.UNREACHABLE, skillId, null));
+    }
+  }
+
+  private void checkSkillList() {
+    skillListIssues.clear();
+    Set<ResourceLocation> listedSkills = new HashSet<>();
+    for (ResourceLocation skillId : skillTree.getSkillIds()) {
+      if (!listedSkills.add(skillId)) {
+        skillListIssues.add(new Issue(IssueType.DUPLICATE_ID, skillId, null));
+      } else if (SkillTreeClientData.getEditorSkill(skillId) == null) {
+        skillListIssues.add(new Issue(IssueType.MISSING_SKILL, skillId, null));
+      }
+    }
+    checkedSkillListSize = skillTree.getSkillIds().size();
+  }
+
+  public enum IssueType {
+    MISSING_SKILL("%s is listed in the tree but has no skill file"),
+    DUPLICATE_ID("%s is listed in the tree more than once"),
+    NO_STARTING_POINT("Tree has no starting points"),
+    DANGLING_CONNECTION("%s is connected to missing %s"),
+    DANGLING_GATEWAY("%s is a gateway to missing %s"),
+    MISSING_TREE("%s leads to missing tree %s"),
+    UNREACHABLE("%s can't be reached from any starting point");
+
+    private final String description;
+
+    IssueType(String description) {
+      this.description = description;
+    }
+  }
+
+  /**
+   * @param skillId skill with the problem, {@code null} for problems of the whole tree
+   * @param target missing skill or tree the skill refers to, if there is one
+   */
+  public record Issue(
+      IssueType type, @Nullable ResourceLocation skillId, @Nullable ResourceLocation target) {
+    public String getDescription() {
+      return String.format(type.description, skillId, target);
+    }
+  }
+}
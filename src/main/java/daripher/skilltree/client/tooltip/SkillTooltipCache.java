@@ -0,0 +1,100 @@
+package daripher.skilltree.client.tooltip;
+
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.client.skill.SkillTreeClientData;
+import daripher.skilltree.client.widget.SkillButton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraft.util.FormattedCharSequence;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber.Bus;
+
+/**
+ * Skill tooltips laid out once and reused while the skill is hovered. Building a tooltip
+ * translates every line and runs bonus tooltip code, so the lines are kept as measured
+ * {@link FormattedCharSequence}s instead. Layouts are dropped when skills are loaded from the
+ * server, when resources (and with them translations) are reloaded, and when an editor skill is
+ * saved.
+ */
+@EventBusSubscriber(modid = SkillTreeMod.MOD_ID, bus = Bus.MOD, value = Dist.CLIENT)
+public class SkillTooltipCache {
+  private static final Map<Key, Layout> LAYOUTS = new HashMap<>();
+
+  @SubscribeEvent
+  public static void registerReloadListener(RegisterClientReloadListenersEvent event) {
+    ResourceManagerReloadListener listener = SkillTooltipCache::resourcesReloaded;
+    event.registerReloadListener(listener);
+  }
+
+  public static Layout getLayout(SkillButton button) {
+    Minecraft minecraft = Minecraft.getInstance();
+    ResourceLocation skillId = button.skill.getId();
+    // editor skills share ids with the skills they were copied from
+    boolean editorSkill = SkillTreeClientData.getEditorSkill(skillId) == button.skill;
+    String language = minecraft.getLanguageManager().getSelected().getCode();
+    boolean advanced = minecraft.options.advancedItemTooltips;
+    Key key = new Key(skillId, editorSkill, language, advanced, Screen.hasShiftDown());
+    return LAYOUTS.computeIfAbsent(key, k -> createLayout(button, minecraft.font));
+  }
+
+  public static void invalidate(ResourceLocation skillId) {
+    LAYOUTS.keySet().removeIf(key -> key.skillId().equals(skillId));
+  }
+
+  public static void clear() {
+    LAYOUTS.clear();
+  }
+
+  private static void resourcesReloaded(ResourceManager resourceManager) {
+    clear();
+  }
+
+  private static Layout createLayout(SkillButton button, Font font) {
+    List<MutableComponent> tooltip = button.getTooltip();
+    if (tooltip.isEmpty()) return Layout.EMPTY;
+    int textWidth = 0;
+    List<FormattedCharSequence> lines = new ArrayList<>();
+    for (MutableComponent component : tooltip) {
+      textWidth = Math.max(textWidth, font.width(component));
+      lines.add(component.getVisualOrderText());
+    }
+    FormattedCharSequence title = lines.remove(0);
+    int titleWidth = font.width(title);
+    int width = textWidth + 42;
+    int height = (tooltip.size() == 1 ? 8 : 10) + font.lineHeight * tooltip.size();
+    return new Layout(title, titleWidth, List.copyOf(lines), width, height);
+  }
+
+  private record Key(
+      ResourceLocation skillId,
+      boolean editorSkill,
+      String language,
+      boolean advanced,
+      boolean shift) {}
+
+  /** Title and the rest of the lines of a tooltip, with the size of its background. */
+  public record Layout(
+      FormattedCharSequence title,
+      int titleWidth,
+      List<FormattedCharSequence> lines,
+      int width,
+      int height) {
+    private static final Layout EMPTY = new Layout(FormattedCharSequence.EMPTY, 0, List.of(), 0, 0);
+
+    public boolean isEmpty() {
+      return this == EMPTY;
+    }
+  }
+}
@@ -17,6 +17,7 @@ import net.minecraft.client.gui.components.Button;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.item.Item;
@@ -31,6 +32,8 @@ public class SkillButton extends Button {
   private static final Style DESCRIPTION_STYLE = Style.EMPTY.withColor(0x7B7BE5);
   private static final Style ID_STYLE = Style.EMPTY.withColor(0x545454);
   private static final Style LORE_STYLE = Style.EMPTY.withColor(0xB96526).withItalic(true);
+  public static final ResourceLocation FAVORITE_HIGHLIGHT_TEXTURE =
+      new ResourceLocation("skilltree:textures/icons/background/favorite.png");
   public final PassiveSkill skill;
   private final Supplier<Float> animationFunction;
   public double x;
@@ -99,15 +102,9 @@ public class SkillButton extends Button {
   }
 
   private void renderFavoriteSkillHighlight(PoseStack poseStack) {
-    if (!ClientConfig.favorite_skills.contains(skill.getId())) return;
-    ScreenHelper.prepareTextureRendering(
-        new ResourceLocation("skilltree:textures/icons/background/favorite.png"));
-    int color;
-    if (ClientConfig.favorite_color_is_rainbow) {
-      color = Color.getHSBColor(animationFunction.get() / 240f, 1f, 1f).getRGB();
-    } else {
-      color = ClientConfig.favorite_color;
-    }
+    if (!isFavorite()) return;
+    ScreenHelper.prepareTextureRendering(FAVORITE_HIGHLIGHT_TEXTURE);
+    int color = getFavoriteColor(animationFunction.get());
     float r = ((color >> 16) & 0xFF) / 255f;
     float g = ((color >> 8) & 0xFF) / 255f;
     float b = ((color) & 0xFF) / 255f;
@@ -124,6 +121,17 @@ public class SkillButton extends Button {
     RenderSystem.setShaderColor(1f, 1f, 1f, 1f);
   }
 
+  public boolean isFavorite() {
+    return ClientConfig.favorite_skills.contains(skill.getId());
+  }
+
+  public static int getFavoriteColor(float animation) {
+    if (ClientConfig.favorite_color_is_rainbow) {
+      return Color.getHSBColor(animation / 240f, 1f, 1f).getRGB();
+    }
+    return ClientConfig.favorite_color;
+  }
+
   private void renderFrame(PoseStack poseStack) {
     blit(poseStack, 0, 0, width, height, width * 2, 0, width, height, width * 3, height);
   }
@@ -198,6 +206,12 @@ public class SkillButton extends Button {
     tooltip.add(title.withStyle(getTitleStyle()));
   }
 
+  /** @return color of the skill title, which tells the skill type apart */
+  public int getTypeColor() {
+    TextColor color = getTitleStyle().getColor();
+    return color == null ? 0xFFFFFF : color.getValue();
+  }
+
   private Style getTitleStyle() {
     return width == 30
         ? GATEWAY_TITLE_STYLE
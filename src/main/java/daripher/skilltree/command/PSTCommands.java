@@ -1,27 +1,76 @@
 package daripher.skilltree.command;
 
+import com.google.gson.JsonObject;
+import com.mojang.brigadier.Command;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
 import daripher.skilltree.SkillTreeMod;
 import daripher.skilltree.capability.skill.IPlayerSkills;
 import daripher.skilltree.capability.skill.PlayerSkillsProvider;
+import daripher.skilltree.data.reloader.SkillsReloader;
+import daripher.skilltree.diagnostics.HandlerProfiler;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
 import daripher.skilltree.network.NetworkDispatcher;
 import daripher.skilltree.network.message.SyncPlayerSkillsMessage;
+import daripher.skilltree.skill.BuildOptimizer;
+import daripher.skilltree.skill.LearnedSkillSet;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.SkillGraph;
+import daripher.skilltree.skill.SkillPathfinder;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
 import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.commands.arguments.ResourceLocationArgument;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.registries.ForgeRegistries;
 
 @EventBusSubscriber(modid = SkillTreeMod.MOD_ID)
 public class PSTCommands {
+  private static final long OPTIMIZER_TIME_LIMIT = 2000;
+  private static final int PROFILER_TABLE_ROWS = 15;
+  private static final String PROFILER_DIRECTORY = "skilltree/profiles";
+  private static final DynamicCommandExceptionType UNKNOWN_SKILL =
+      new DynamicCommandExceptionType(
+          id -> Component.translatable("skilltree.message.unknown_skill", id));
+  public static final SuggestionProvider<CommandSourceStack> SKILL_ID_PROVIDER =
+      (ctx, builder) ->
+          SharedSuggestionProvider.suggestResource(SkillsReloader.getSkills().keySet(), builder);
+  public static final SuggestionProvider<CommandSourceStack> ATTRIBUTE_ID_PROVIDER =
+      (ctx, builder) ->
+          SharedSuggestionProvider.suggestResource(ForgeRegistries.ATTRIBUTES.getKeys(), builder);
+  public static final SuggestionProvider<CommandSourceStack> OPERATION_PROVIDER =
+      (ctx, builder) ->
+          SharedSuggestionProvider.suggest(
+              Arrays.stream(AttributeModifier.Operation.values())
+                  .map(operation -> operation.name().toLowerCase(Locale.ROOT)),
+              builder);
+
   @SubscribeEvent
   public static void registerCommands(RegisterCommandsEvent event) {
     LiteralArgumentBuilder<CommandSourceStack> resetCommand =
@@ -59,6 +108,72 @@ public class PSTCommands {
                                             .executes(PSTCommands::executeSetPointsCommand)))))
             .requires(PSTCommands::hasPermission);
     event.getDispatcher().register(setPointsCommand);
+    LiteralArgumentBuilder<CommandSourceStack> refundCommand =
+        Commands.literal("skilltree")
+            .then(
+                Commands.literal("refund")
+                    .then(
+                        Commands.argument("player", EntityArgument.player())
+                            .then(
+                                Commands.argument("skill", ResourceLocationArgument.id())
+                                    .suggests(SKILL_ID_PROVIDER)
+                                    .executes(PSTCommands::executeRefundCommand))))
+            .requires(PSTCommands::hasPermission);
+    event.getDispatcher().register(refundCommand);
+    LiteralArgumentBuilder<CommandSourceStack> pathCommand =
+        Commands.literal("skilltree")
+            .then(
+                Commands.literal("path")
+                    .then(
+                        Commands.argument("player", EntityArgument.player())
+                            .then(
+                                Commands.argument("skill", ResourceLocationArgument.id())
+                                    .suggests(SKILL_ID_PROVIDER)
+                                    .executes(PSTCommands::executePathCommand))))
+            .requires(PSTCommands::hasPermission);
+    event.getDispatcher().register(pathCommand);
+    ArgumentBuilder<CommandSourceStack, ?> optimizeAttributeTarget =
+        Commands.literal("attribute")
+            .then(
+                Commands.argument("attribute", ResourceLocationArgument.id())
+                    .suggests(ATTRIBUTE_ID_PROVIDER)
+                    .then(operationArgument(PSTCommands::executeOptimizeAttributeCommand)));
+    ArgumentBuilder<CommandSourceStack, ?> optimizeDamageTarget =
+        Commands.literal("damage")
+            .then(operationArgument(PSTCommands::executeOptimizeDamageCommand));
+    LiteralArgumentBuilder<CommandSourceStack> optimizeCommand =
+        Commands.literal("skilltree")
+            .then(
+                Commands.literal("optimize")
+                    .then(
+                        Commands.argument("player", EntityArgument.player())
+                            .then(
+                                Commands.argument("points", IntegerArgumentType.integer(1))
+                                    .then(optimizeAttributeTarget)
+                                    .then(optimizeDamageTarget))))
+            .requires(PSTCommands::hasPermission);
+    event.getDispatcher().register(optimizeCommand);
+    LiteralArgumentBuilder<CommandSourceStack> profileCommand =
+        Commands.literal("skilltree")
+            .then(
+                Commands.literal("profile")
+                    .then(Commands.literal("start").executes(PSTCommands::executeProfileStart))
+                    .then(Commands.literal("stop").executes(PSTCommands::executeProfileStop))
+                    .then(Commands.literal("dump").executes(PSTCommands::executeProfileDump)))
+            .requires(PSTCommands::hasPermission);
+    event.getDispatcher().register(profileCommand);
+    LiteralArgumentBuilder<CommandSourceStack> metricsCommand =
+        Commands.literal("skilltree")
+            .then(Commands.literal("metrics").executes(PSTCommands::executeMetricsCommand))
+            .requires(PSTCommands::hasPermission);
+    event.getDispatcher().register(metricsCommand);
+  }
+
+  private static ArgumentBuilder<CommandSourceStack, ?> operationArgument(
+      Command<CommandSourceStack> command) {
+    return Commands.argument("operation", StringArgumentType.word())
+        .suggests(OPERATION_PROVIDER)
+        .executes(command);
   }
 
   private static int executeResetCommand(CommandContext<CommandSourceStack> ctx)
@@ -97,6 +212,196 @@ public class PSTCommands {
     return 1;
   }
 
+  private static int executeRefundCommand(CommandContext<CommandSourceStack> ctx)
+      throws CommandSyntaxException {
+    ServerPlayer player = EntityArgument.getPlayer(ctx, "player");
+    PassiveSkill skill = SkillsReloader.getSkillById(ResourceLocationArgument.getId(ctx, "skill"));
+    IPlayerSkills skillsCapability = PlayerSkillsProvider.get(player);
+    if (skill == null || !skillsCapability.refundSkill(player, skill)) {
+      ctx.getSource().sendFailure(Component.translatable("skilltree.message.refund_failed"));
+      return 0;
+    }
+    player.sendSystemMessage(
+        Component.translatable("skilltree.message.refund_command")
+            .withStyle(ChatFormatting.YELLOW));
+    NetworkDispatcher.network_channel.send(
+        PacketDistributor.PLAYER.with(() -> player), new SyncPlayerSkillsMessage(player));
+    return 1;
+  }
+
+  private static int executePathCommand(CommandContext<CommandSourceStack> ctx)
+      throws CommandSyntaxException {
+    ServerPlayer player = EntityArgument.getPlayer(ctx, "player");
+    SkillGraph graph = SkillsReloader.getSkillGraph();
+    IPlayerSkills skillsCapability = PlayerSkillsProvider.get(player);
+    LearnedSkillSet learned = LearnedSkillSet.of(graph, skillsCapability.getPlayerSkills());
+    ResourceLocation skillId = ResourceLocationArgument.getId(ctx, "skill");
+    int target = graph.indexOf(skillId);
+    if (target == -1) throw UNKNOWN_SKILL.create(skillId);
+    if (learned.getLearned().get(target)) {
+      ctx.getSource()
+          .sendSuccess(Component.translatable("skilltree.message.already_learned"), false);
+      return 0;
+    }
+    int[] path = SkillPathfinder.findPath(graph, learned.getLearned(), target);
+    if (path == null) {
+      ctx.getSource().sendFailure(Component.translatable("skilltree.message.no_path"));
+      return 0;
+    }
+    String skills =
+        Arrays.stream(path)
+            .mapToObj(graph::getSkill)
+            .map(skill -> skill.getId().toString())
+            .collect(Collectors.joining(", "));
+    ctx.getSource()
+        .sendSuccess(Component.translatable("skilltree.message.path", path.length, skills), false);
+    return path.length;
+  }
+
+  private static int executeOptimizeAttributeCommand(CommandContext<CommandSourceStack> ctx)
+      throws CommandSyntaxException {
+    Attribute attribute =
+        ForgeRegistries.ATTRIBUTES.getValue(ResourceLocationArgument.getId(ctx, "attribute"));
+    AttributeModifier.Operation operation = getOperation(ctx);
+    if (attribute == null || operation == null) {
+      ctx.getSource().sendFailure(Component.translatable("skilltree.message.optimize_failed"));
+      return 0;
+    }
+    return executeOptimizeCommand(ctx, BuildOptimizer.Target.attribute(attribute, operation));
+  }
+
+  private static int executeOptimizeDamageCommand(CommandContext<CommandSourceStack> ctx)
+      throws CommandSyntaxException {
+    AttributeModifier.Operation operation = getOperation(ctx);
+    if (operation == null) {
+      ctx.getSource().sendFailure(Component.translatable("skilltree.message.optimize_failed"));
+      return 0;
+    }
+    return executeOptimizeCommand(ctx, BuildOptimizer.Target.damage(operation));
+  }
+
+  private static int executeOptimizeCommand(
+      CommandContext<CommandSourceStack> ctx, BuildOptimizer.Target target)
+      throws CommandSyntaxException {
+    ServerPlayer player = EntityArgument.getPlayer(ctx, "player");
+    int points = IntegerArgumentType.getInteger(ctx, "points");
+    SkillGraph graph = SkillsReloader.getSkillGraph();
+    IPlayerSkills skillsCapability = PlayerSkillsProvider.get(player);
+    LearnedSkillSet learned = LearnedSkillSet.of(graph, skillsCapability.getPlayerSkills());
+    CommandSourceStack source = ctx.getSource();
+    CompletableFuture.supplyAsync(
+            () ->
+                BuildOptimizer.optimize(
+                    graph, learned.getLearned(), points, target, OPTIMIZER_TIME_LIMIT))
+        .whenCompleteAsync(
+            (build, exception) -> {
+              if (exception != null) {
+                SkillTreeMod.LOGGER.error(
+                    "Couldn't optimize build of {}", player.getScoreboardName(), exception);
+                source.sendFailure(Component.translatable("skilltree.message.optimize_error"));
+                return;
+              }
+              BitSet newSkills = (BitSet) build.skills().clone();
+              newSkills.andNot(learned.getLearned());
+              String skills =
+                  newSkills.stream()
+                      .mapToObj(graph::getSkill)
+                      .map(skill -> skill.getId().toString())
+                      .collect(Collectors.joining(", "));
+              source.sendSuccess(
+                  Component.translatable(
+                      "skilltree.message.optimize",
+                      ItemStack.ATTRIBUTE_MODIFIER_FORMAT.format(build.value()),
+                      build.cost(),
+                      skills),
+                  false);
+            },
+            source.getServer());
+    return 1;
+  }
+
+  private static int executeProfileStart(CommandContext<CommandSourceStack> ctx) {
+    HandlerProfiler.start();
+    ctx.getSource().sendSuccess(Component.translatable("skilltree.message.profile_started"), true);
+    return 1;
+  }
+
+  private static int executeProfileStop(CommandContext<CommandSourceStack> ctx) {
+    if (!HandlerProfiler.isRunning()) {
+      ctx.getSource().sendFailure(Component.translatable("skilltree.message.profile_not_started"));
+      return 0;
+    }
+    HandlerProfiler.stop();
+    ctx.getSource().sendSuccess(Component.translatable("skilltree.message.profile_stopped"), true);
+    return 1;
+  }
+
+  private static int executeProfileDump(CommandContext<CommandSourceStack> ctx) {
+    CommandSourceStack source = ctx.getSource();
+    if (HandlerProfiler.getDurationNanos() == 0) {
+      source.sendFailure(Component.translatable("skilltree.message.profile_not_started"));
+      return 0;
+    }
+    List<HandlerProfiler.HandlerStats> stats = HandlerProfiler.getStats();
+    stats.stream()
+        .limit(PROFILER_TABLE_ROWS)
+        .map(
+            handler ->
+                String.format(
+                    Locale.ROOT,
+                    "%s: %d calls, %.3f ms, %d ns/call, %d KiB",
+                    handler.getName(),
+                    handler.getInvocations(),
+                    handler.getNanos() / 1_000_000D,
+                    handler.getMeanNanos(),
+                    handler.getAllocatedBytes() / 1024))
+        .forEach(row -> source.sendSuccess(Component.literal(row), false));
+    Path directory = source.getServer().getServerDirectory().toPath().resolve(PROFILER_DIRECTORY);
+    try {
+      Path file = HandlerProfiler.dump(directory);
+      source.sendSuccess(
+          Component.translatable("skilltree.message.profile_dump", file.toString()), false);
+      return stats.size();
+    } catch (IOException exception) {
+      SkillTreeMod.LOGGER.error("Couldn't save handler profile", exception);
+      source.sendFailure(Component.translatable("skilltree.message.profile_dump_failed"));
+      return 0;
+    }
+  }
+
+  private static int executeMetricsCommand(CommandContext<CommandSourceStack> ctx) {
+    CommandSourceStack source = ctx.getSource();
+    JsonObject window = SkillTreeMetrics.getLastWindow();
+    if (window == null) {
+      source.sendFailure(Component.translatable("skilltree.message.metrics_empty"));
+      return 0;
+    }
+    source.sendSuccess(
+        Component.translatable(
+            "skilltree.message.metrics", window.get("duration_ms").getAsLong() / 1000),
+        false);
+    for (String group : List.of("rates", "counters", "histograms")) {
+      window
+          .getAsJsonObject(group)
+          .entrySet()
+          .forEach(
+              entry ->
+                  source.sendSuccess(
+                      Component.literal(entry.getKey() + ": " + entry.getValue()), false));
+    }
+    return 1;
+  }
+
+  private static @Nullable AttributeModifier.Operation getOperation(
+      CommandContext<CommandSourceStack> ctx) {
+    String operation = StringArgumentType.getString(ctx, "operation").toUpperCase(Locale.ROOT);
+    try {
+      return AttributeModifier.Operation.valueOf(operation);
+    } catch (IllegalArgumentException exception) {
+      return null;
+    }
+  }
+
   private static boolean hasPermission(CommandSourceStack commandSourceStack) {
     return commandSourceStack.hasPermission(2);
   }
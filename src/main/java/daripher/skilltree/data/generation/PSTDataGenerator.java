@@ -3,6 +3,8 @@ package daripher.skilltree.data.generation;
 import daripher.skilltree.SkillTreeMod;
 import daripher.skilltree.data.generation.skills.PSTSkillTreesProvider;
 import daripher.skilltree.data.generation.skills.PSTSkillsProvider;
+import daripher.skilltree.data.generation.skills.PSTSyntheticSkillsProvider;
+import daripher.skilltree.data.generation.skills.SyntheticSkillTreeGenerator;
 import daripher.skilltree.data.generation.translation.PSTEnglishTranslationProvider;
 import daripher.skilltree.data.generation.translation.PSTRussianTranslationProvider;
 import net.minecraft.data.DataGenerator;
@@ -19,6 +21,11 @@ public class PSTDataGenerator {
     DataGenerator dataGenerator = event.getGenerator();
     ExistingFileHelper fileHelper = event.getExistingFileHelper();
 
+    if (SyntheticSkillTreeGenerator.Settings.isEnabled()) {
+      addSyntheticProviders(event, dataGenerator);
+      return;
+    }
+
     dataGenerator.addProvider(
         event.includeClient(), new PSTEnglishTranslationProvider(dataGenerator));
     dataGenerator.addProvider(
@@ -36,7 +43,16 @@ public class PSTDataGenerator {
 
     PSTSkillsProvider skillsProvider = new PSTSkillsProvider(dataGenerator);
     dataGenerator.addProvider(event.includeServer(), skillsProvider);
+    dataGenerator.addProvider(event.includeServer(), new PSTSkillTreesProvider(skillsProvider));
+  }
+
+  private static void addSyntheticProviders(GatherDataEvent event, DataGenerator dataGenerator) {
+    SyntheticSkillTreeGenerator.Settings settings =
+        SyntheticSkillTreeGenerator.Settings.fromSystemProperties();
+    PSTSkillsProvider skillsProvider = new PSTSyntheticSkillsProvider(dataGenerator, settings);
+    dataGenerator.addProvider(event.includeServer(), skillsProvider);
     dataGenerator.addProvider(
-        event.includeServer(), new PSTSkillTreesProvider(dataGenerator, skillsProvider));
+        event.includeServer(),
+        new PSTSkillTreesProvider(skillsProvider, settings.treeId()));
   }
 }
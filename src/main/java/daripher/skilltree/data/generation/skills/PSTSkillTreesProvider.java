@@ -7,26 +7,30 @@ import daripher.skilltree.skill.PassiveSkillTree;
 import java.io.IOException;
 import java.nio.file.Path;
 import net.minecraft.data.CachedOutput;
-import net.minecraft.data.DataGenerator;
 import net.minecraft.data.DataProvider;
 import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.NotNull;
 
 public class PSTSkillTreesProvider implements DataProvider {
-  private final DataGenerator dataGenerator;
+  private static final ResourceLocation MAIN_TREE_ID =
+      new ResourceLocation(SkillTreeMod.MOD_ID, "main_tree");
   private final PSTSkillsProvider skillsProvider;
+  private final ResourceLocation skillTreeId;
 
-  public PSTSkillTreesProvider(DataGenerator dataGenerator, PSTSkillsProvider skillsProvider) {
-    this.dataGenerator = dataGenerator;
+  public PSTSkillTreesProvider(PSTSkillsProvider skillsProvider) {
+    this(skillsProvider, MAIN_TREE_ID);
+  }
+
+  public PSTSkillTreesProvider(PSTSkillsProvider skillsProvider, ResourceLocation skillTreeId) {
     this.skillsProvider = skillsProvider;
+    this.skillTreeId = skillTreeId;
   }
 
   @Override
   public void run(@NotNull CachedOutput output) {
-    PassiveSkillTree skillTree =
-        new PassiveSkillTree(new ResourceLocation(SkillTreeMod.MOD_ID, "main_tree"));
+    PassiveSkillTree skillTree = new PassiveSkillTree(skillTreeId);
     skillsProvider.getSkills().keySet().forEach(skillTree.getSkillIds()::add);
-    Path path = dataGenerator.getOutputFolder().resolve(getSkillTreePath(skillTree));
+    Path path = skillsProvider.getOutputFolder().resolve(getSkillTreePath(skillTree));
     JsonElement json = SkillTreesReloader.GSON.toJsonTree(skillTree);
     try {
       DataProvider.saveStable(output, json, path);
@@ -42,6 +46,7 @@ public class PSTSkillTreesProvider implements DataProvider {
 
   @Override
   public @NotNull String getName() {
-    return "Skill Trees Provider";
+    if (skillTreeId.equals(MAIN_TREE_ID)) return "Skill Trees Provider";
+    return "Skill Trees Provider: " + skillTreeId;
   }
 }
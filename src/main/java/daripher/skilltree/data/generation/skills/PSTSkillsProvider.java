@@ -1331,8 +1331,8 @@ public class PSTSkillsProvider implements DataProvider {
     skills.values().forEach(skill -> save(output, skill));
   }
 
-  private void save(CachedOutput output, PassiveSkill skill) {
-    Path path = dataGenerator.getOutputFolder().resolve(getPath(skill));
+  protected void save(CachedOutput output, PassiveSkill skill) {
+    Path path = getOutputFolder().resolve(getPath(skill));
     JsonElement json = SkillsReloader.GSON.toJsonTree(skill);
     try {
       DataProvider.saveStable(output, json, path);
@@ -1341,6 +1341,10 @@ public class PSTSkillsProvider implements DataProvider {
     }
   }
 
+  protected Path getOutputFolder() {
+    return dataGenerator.getOutputFolder();
+  }
+
   public String getPath(PassiveSkill skill) {
     ResourceLocation id = skill.getId();
     return "data/" + id.getNamespace() + "/skills/" + id.getPath() + ".json";
@@ -0,0 +1,26 @@
+package daripher.skilltree.data.generation.skills;
+
+import net.minecraft.data.CachedOutput;
+import net.minecraft.data.DataGenerator;
+import org.jetbrains.annotations.NotNull;
+
+public class PSTSyntheticSkillsProvider extends PSTSkillsProvider {
+  private final SyntheticSkillTreeGenerator.Settings settings;
+
+  public PSTSyntheticSkillsProvider(
+      DataGenerator dataGenerator, SyntheticSkillTreeGenerator.Settings settings) {
+    super(dataGenerator);
+    this.settings = settings;
+  }
+
+  @Override
+  public void run(@NotNull CachedOutput output) {
+    getSkills().putAll(new SyntheticSkillTreeGenerator(settings).generate());
+    getSkills().values().forEach(skill -> save(output, skill));
+  }
+
+  @Override
+  public @NotNull String getName() {
+    return "Synthetic Skills Provider";
+  }
+}
@@ -0,0 +1,257 @@
+package daripher.skilltree.data.generation.skills;
+
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.bonus.SkillBonus;
+import daripher.skilltree.skill.bonus.player.*;
+import java.util.*;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier.Operation;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+
+/**
+ * Generates large random skill trees for load testing. Skills form a forest grown from the starting
+ * points, laid out on rings by depth, with extra loop connections and gateway pairs on top. The
+ * output only depends on the settings, so the same seed always gives the same tree.
+ */
+public class SyntheticSkillTreeGenerator {
+  private static final float RING_DISTANCE = 30F;
+  private static final float SKILL_SPACING = 28F;
+  private static final Attribute[] ATTRIBUTES = {
+    Attributes.MAX_HEALTH,
+    Attributes.ARMOR,
+    Attributes.ARMOR_TOUGHNESS,
+    Attributes.ATTACK_DAMAGE,
+    Attributes.ATTACK_SPEED,
+    Attributes.MOVEMENT_SPEED,
+    Attributes.LUCK
+  };
+  private final Settings settings;
+  private final Random random;
+  private final List<PassiveSkill> skills = new ArrayList<>();
+  private final List<Integer> depths = new ArrayList<>();
+
+  public SyntheticSkillTreeGenerator(Settings settings) {
+    this.settings = settings;
+    this.random = new Random(settings.seed());
+  }
+
+  public Map<ResourceLocation, PassiveSkill> generate() {
+    addSkills();
+    shapeSkillTree();
+    addLoops();
+    addGateways();
+    addBonuses();
+    Map<ResourceLocation, PassiveSkill> result = new LinkedHashMap<>();
+    skills.forEach(skill -> result.put(skill.getId(), skill));
+    return result;
+  }
+
+  private void addSkills() {
+    int startingPoints = Math.min(settings.startingPoints(), settings.skills());
+    for (int i = 0; i < settings.skills(); i++) {
+      boolean isStartingPoint = i < startingPoints;
+      int size = isStartingPoint ? 24 : getRandomSkillSize();
+      PassiveSkill skill = createSkill(i, size, isStartingPoint);
+      if (isStartingPoint) {
+        depths.add(0);
+      } else {
+        int parent = (i - startingPoints) / settings.branching();
+        skills.get(parent).connect(skill);
+        depths.add(depths.get(parent) + 1);
+      }
+      skills.add(skill);
+    }
+  }
+
+  private int getRandomSkillSize() {
+    float roll = random.nextFloat();
+    return roll < 0.025F ? 24 : roll < 0.125F ? 20 : 16;
+  }
+
+  private PassiveSkill createSkill(int index, int size, boolean isStartingPoint) {
+    String background =
+        isStartingPoint ? "class" : size == 24 ? "keystone" : size == 20 ? "notable" : "lesser";
+    String border = size == 24 ? "keystone" : size == 20 ? "notable" : "lesser";
+    ResourceLocation id =
+        new ResourceLocation(settings.treeId().getNamespace(), getSkillName(index));
+    return new PassiveSkill(
+        id,
+        size,
+        new ResourceLocation(
+            SkillTreeMod.MOD_ID, "textures/icons/background/" + background + ".png"),
+        new ResourceLocation(SkillTreeMod.MOD_ID, "textures/icons/void.png"),
+        new ResourceLocation(SkillTreeMod.MOD_ID, "textures/tooltip/" + border + ".png"),
+        isStartingPoint);
+  }
+
+  private String getSkillName(int index) {
+    return settings.treeId().getPath() + "_" + index;
+  }
+
+  private void shapeSkillTree() {
+    int maxDepth = depths.stream().mapToInt(Integer::intValue).max().orElse(0);
+    int[] ringSizes = new int[maxDepth + 1];
+    depths.forEach(depth -> ringSizes[depth]++);
+    int[] ringPositions = new int[maxDepth + 1];
+    float radius = 0F;
+    float[] ringRadiuses = new float[maxDepth + 1];
+    for (int depth = 0; depth <= maxDepth; depth++) {
+      radius += RING_DISTANCE;
+      radius = Math.max(radius, ringSizes[depth] * SKILL_SPACING / Mth.TWO_PI);
+      ringRadiuses[depth] = radius;
+    }
+    for (int i = 0; i < skills.size(); i++) {
+      int depth = depths.get(i);
+      float angle = ringPositions[depth]++ * Mth.TWO_PI / ringSizes[depth];
+      skills.get(i).setPosition(
+          Mth.sin(angle) * ringRadiuses[depth], Mth.cos(angle) * ringRadiuses[depth]);
+    }
+  }
+
+  private void addLoops() {
+    for (int loop = 0; loop < settings.loops() && skills.size() > 1; loop++) {
+      int index = random.nextInt(skills.size() - 1);
+      if (!depths.get(index).equals(depths.get(index + 1))) continue;
+      skills.get(index).connect(skills.get(index + 1));
+    }
+  }
+
+  private void addGateways() {
+    if (skills.isEmpty()) return;
+    for (int pair = 0; pair < settings.gateways(); pair++) {
+      PassiveSkill first = addGateway(random.nextInt(skills.size()));
+      PassiveSkill second = addGateway(random.nextInt(skills.size()));
+      first.getConnectedAsGateways().add(second.getId());
+    }
+  }
+
+  private PassiveSkill addGateway(int connectedIndex) {
+    PassiveSkill connectedSkill = skills.get(connectedIndex);
+    ResourceLocation id =
+        new ResourceLocation(settings.treeId().getNamespace(), getSkillName(skills.size()));
+    PassiveSkill gateway =
+        new PassiveSkill(
+            id,
+            30,
+            new ResourceLocation(SkillTreeMod.MOD_ID, "textures/icons/background/gateway.png"),
+            new ResourceLocation(SkillTreeMod.MOD_ID, "textures/icons/void.png"),
+            new ResourceLocation(SkillTreeMod.MOD_ID, "textures/tooltip/gateway.png"),
+            false);
+    float angle = random.nextFloat() * Mth.TWO_PI;
+    gateway.setPosition(
+        connectedSkill.getPositionX() + Mth.sin(angle) * RING_DISTANCE * 2,
+        connectedSkill.getPositionY() + Mth.cos(angle) * RING_DISTANCE * 2);
+    connectedSkill.connect(gateway);
+    skills.add(gateway);
+    depths.add(depths.get(connectedIndex) + 1);
+    return gateway;
+  }
+
+  private void addBonuses() {
+    int totalWeight = settings.bonusMix().values().stream().mapToInt(Integer::intValue).sum();
+    if (totalWeight <= 0) return;
+    for (PassiveSkill skill : skills) {
+      if (skill.getButtonSize() == 30) continue;
+      for (int i = 0; i < settings.bonusesPerSkill(); i++) {
+        skill.addSkillBonus(createRandomBonus(totalWeight, skill.getButtonSize() / 16F));
+      }
+    }
+  }
+
+  private SkillBonus<?> createRandomBonus(int totalWeight, float power) {
+    int roll = random.nextInt(totalWeight);
+    String type = null;
+    for (Map.Entry<String, Integer> entry : settings.bonusMix().entrySet()) {
+      roll -= entry.getValue();
+      if (roll < 0) {
+        type = entry.getKey();
+        break;
+      }
+    }
+    return switch (Objects.requireNonNull(type)) {
+      case "damage" -> new DamageBonus(0.05F * power, Operation.MULTIPLY_BASE);
+      case "crit_chance" -> new CritChanceBonus(0.02F * power);
+      case "crit_damage" -> new CritDamageBonus(0.05F * power);
+      case "break_speed" -> new BlockBreakSpeedBonus(null, 0.05F * power);
+      case "jump" -> new JumpHeightBonus(null, 0.05F * power);
+      default -> createRandomAttributeBonus(power);
+    };
+  }
+
+  private AttributeBonus createRandomAttributeBonus(float power) {
+    Attribute attribute = ATTRIBUTES[random.nextInt(ATTRIBUTES.length)];
+    Operation operation = random.nextBoolean() ? Operation.ADDITION : Operation.MULTIPLY_BASE;
+    double amount = (operation == Operation.ADDITION ? 1D : 0.05D) * power;
+    UUID modifierId = new UUID(random.nextLong(), random.nextLong());
+    return new AttributeBonus(
+        attribute, new AttributeModifier(modifierId, "SkillBonus", amount, operation));
+  }
+
+  /**
+   * @param skills amount of regular skills, gateways are added on top
+   * @param branching amount of child skills attached to every skill
+   * @param gateways amount of connected gateway pairs
+   * @param loops amount of attempts to connect neighbouring skills on the same ring
+   * @param bonusMix bonus types with their weights, unknown types produce attribute bonuses
+   */
+  public record Settings(
+      ResourceLocation treeId,
+      int skills,
+      int startingPoints,
+      int branching,
+      int gateways,
+      int loops,
+      int bonusesPerSkill,
+      Map<String, Integer> bonusMix,
+      long seed) {
+    public static final String PROPERTY_PREFIX = "skilltree.synthetic.";
+
+    public static boolean isEnabled() {
+      return System.getProperty(PROPERTY_PREFIX + "skills") != null;
+    }
+
+    public static Settings fromSystemProperties() {
+      int skills = Integer.getInteger(PROPERTY_PREFIX + "skills", 5000);
+      return new Settings(
+          new ResourceLocation(
+              System.getProperty(PROPERTY_PREFIX + "tree", "skilltree:synthetic_tree")),
+          skills,
+          Integer.getInteger(PROPERTY_PREFIX + "starting_points", 6),
+          Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "branching", 3)),
+          Integer.getInteger(PROPERTY_PREFIX + "gateways", 8),
+          Integer.getInteger(PROPERTY_PREFIX + "loops", skills / 20),
+          Integer.getInteger(PROPERTY_PREFIX + "bonuses", 1),
+          parseBonusMix(
+              System.getProperty(
+                  PROPERTY_PREFIX + "bonus_mix",
+                  "attribute:4,damage:2,crit_chance:1,crit_damage:1,break_speed:1,jump:1")),
+          Long.getLong(PROPERTY_PREFIX + "seed", 0L));
+    }
+
+    public static Settings ofSize(int skills) {
+      return new Settings(
+          new ResourceLocation(SkillTreeMod.MOD_ID, "synthetic_tree"),
+          skills,
+          6,
+          3,
+          8,
+          skills / 20,
+          1,
+          parseBonusMix("attribute:4,damage:2,crit_chance:1,crit_damage:1,break_speed:1,jump:1"),
+          0L);
+    }
+
+    private static Map<String, Integer> parseBonusMix(String value) {
+      Map<String, Integer> bonusMix = new LinkedHashMap<>();
+      for (String entry : value.split(",")) {
+        String[] parts = entry.trim().split(":");
+        bonusMix.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+      }
+      return bonusMix;
+    }
+  }
+}
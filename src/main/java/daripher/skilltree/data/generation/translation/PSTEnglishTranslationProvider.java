@@ -409,6 +409,24 @@ public class PSTEnglishTranslationProvider extends PSTTranslationProvider {
     add("skilltree.message.reset", "Skill Tree has changed. Your skill points have been restored.");
     add("skilltree.message.reset_command", "Your skill tree has been reset.");
     add("skilltree.message.point_command", "Skill point gained.");
+    add("skilltree.message.refund_command", "Skill refunded.");
+    add(
+        "skilltree.message.refund_failed",
+        "This skill can't be refunded without disconnecting other skills.");
+    add("skilltree.message.path", "Skills to learn (%s): %s");
+    add("skilltree.message.no_path", "This skill can't be reached.");
+    add("skilltree.message.already_learned", "This skill is already learned.");
+    add("skilltree.message.unknown_skill", "Unknown skill: %s");
+    add("skilltree.message.optimize", "Best build found: %s for %s points: %s");
+    add("skilltree.message.optimize_failed", "Unknown optimization target.");
+    add("skilltree.message.optimize_error", "Build optimization failed, see the server log.");
+    add("skilltree.message.profile_started", "Handler profiler started.");
+    add("skilltree.message.profile_stopped", "Handler profiler stopped.");
+    add("skilltree.message.profile_not_started", "Handler profiler hasn't been started.");
+    add("skilltree.message.profile_dump", "Handler profile saved to %s");
+    add("skilltree.message.profile_dump_failed", "Couldn't save handler profile.");
+    add("skilltree.message.metrics", "Metrics of the last %s seconds:");
+    add("skilltree.message.metrics_empty", "No metrics were collected yet");
     // screen info
     add("widget.skill_points_left", "Points left: %s");
     add("widget.skill_button.not_learned", "Skill not learned");
@@ -417,8 +435,10 @@ public class PSTEnglishTranslationProvider extends PSTTranslationProvider {
     add("widget.confirm_button", "Confirm");
     add("widget.cancel_button", "Cancel");
     add("widget.show_stats", "Show Stats");
+    add("widget.skill_search", "Search...");
     add("key.categories.skilltree", "Passive Skill Tree");
     add("key.display_skill_tree", "Open Skill Tree");
+    add("key.skill_tree_debug_overlay", "Skill Tree Frame Time Overlay");
     // apotheosis compatibility
     add("item.apotheosis.gem.skilltree:ruby", "Ruby");
     add("item.apotheosis.gem.skilltree:onyx", "Onyx");
@@ -401,6 +401,26 @@ public class PSTRussianTranslationProvider extends PSTTranslationProvider {
         "Древо пассивных умений изменилось. Ваши очки умений были восстановлены.");
     add("skilltree.message.reset_command", "Ваше древо пассивных умений было сброшено.");
     add("skilltree.message.point_command", "Получено очко пассивных умений.");
+    add("skilltree.message.refund_command", "Очко пассивного умения возвращено.");
+    add(
+        "skilltree.message.refund_failed",
+        "Это умение нельзя сбросить, не отсоединив другие умения.");
+    add("skilltree.message.path", "Умения для изучения (%s): %s");
+    add("skilltree.message.no_path", "Это умение недостижимо.");
+    add("skilltree.message.already_learned", "Это умение уже изучено.");
+    add("skilltree.message.unknown_skill", "Неизвестное умение: %s");
+    add("skilltree.message.optimize", "Лучшая найденная сборка: %s за %s очков: %s");
+    add("skilltree.message.optimize_failed", "Неизвестная цель оптимизации.");
+    add(
+        "skilltree.message.optimize_error",
+        "Не удалось оптимизировать сборку, подробности в логе сервера.");
+    add("skilltree.message.profile_started", "Профилировщик обработчиков запущен.");
+    add("skilltree.message.profile_stopped", "Профилировщик обработчиков остановлен.");
+    add("skilltree.message.profile_not_started", "Профилировщик обработчиков не запущен.");
+    add("skilltree.message.profile_dump", "Профиль обработчиков сохранён в %s");
+    add("skilltree.message.profile_dump_failed", "Не удалось сохранить профиль обработчиков.");
+    add("skilltree.message.metrics", "Метрики за последние %s секунд:");
+    add("skilltree.message.metrics_empty", "Метрики ещё не собраны");
     // screen info
     add("widget.skill_points_left", "Очков осталось: %s");
     add("widget.skill_button.not_learned", "Умение не изучено");
@@ -409,8 +429,10 @@ public class PSTRussianTranslationProvider extends PSTTranslationProvider {
     add("widget.confirm_button", "Подтвердить");
     add("widget.cancel_button", "Отмена");
     add("widget.show_stats", "Список бонусов");
+    add("widget.skill_search", "Поиск...");
     add("key.categories.skilltree", "Древо пассивных умений");
     add("key.display_skill_tree", "Открыть древо пассивных умений");
+    add("key.skill_tree_debug_overlay", "Время кадра древа умений");
     // apotheosis compatibility
     add("item.apotheosis.gem.skilltree:ruby", "Рубин");
     add("item.apotheosis.gem.skilltree:onyx", "Оникс");
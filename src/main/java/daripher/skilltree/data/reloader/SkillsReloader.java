@@ -6,7 +6,10 @@ import com.google.gson.JsonElement;
 import com.mojang.logging.LogUtils;
 import daripher.skilltree.SkillTreeMod;
 import daripher.skilltree.data.serializers.SkillBonusSerializer;
+import daripher.skilltree.diagnostics.SkillTreeEvents;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
 import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.SkillGraph;
 import daripher.skilltree.skill.bonus.SkillBonus;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,6 +34,7 @@ public class SkillsReloader extends SimpleJsonResourceReloadListener {
           .create();
   private static final Logger LOGGER = LogUtils.getLogger();
   private static final Map<ResourceLocation, PassiveSkill> SKILLS = new HashMap<>();
+  private static @Nullable SkillGraph skill_graph;
 
   public SkillsReloader() {
     super(GSON, "skills");
@@ -49,13 +53,29 @@ public class SkillsReloader extends SimpleJsonResourceReloadListener {
     return SKILLS.get(id);
   }
 
+  public static SkillGraph getSkillGraph() {
+    if (skill_graph == null) skill_graph = SkillGraph.of(SKILLS.values());
+    return skill_graph;
+  }
+
+  /** Has to be called after the skills map was changed directly, rebuilds the graph lazily. */
+  public static void invalidateSkillGraph() {
+    skill_graph = null;
+  }
+
   @Override
   protected void apply(
       Map<ResourceLocation, JsonElement> map,
       @NotNull ResourceManager resourceManager,
       @NotNull ProfilerFiller profilerFiller) {
+    SkillTreeEvents.SkillsReload reload = new SkillTreeEvents.SkillsReload();
+    reload.begin();
+    long start = System.nanoTime();
     SKILLS.clear();
     map.forEach(this::readSkill);
+    invalidateSkillGraph();
+    reload.finish(map.size(), SKILLS.size());
+    SkillTreeMetrics.RELOAD_DURATION.record((System.nanoTime() - start) / 1_000_000D);
   }
 
   protected void readSkill(ResourceLocation id, JsonElement json) {
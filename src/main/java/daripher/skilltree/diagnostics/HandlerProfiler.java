@@ -0,0 +1,301 @@
+package daripher.skilltree.diagnostics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import daripher.skilltree.SkillTreeMod;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.GenericEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLEnvironment;
+import net.minecraftforge.fml.loading.moddiscovery.ModAnnotation;
+import net.minecraftforge.forgespi.language.ModFileScanData;
+
+/**
+ * Measures the mod's event handlers. While the profiler is running, every class subscribed to the
+ * Forge event bus is unregistered and its handlers are registered again wrapped into timed
+ * listeners. Stopping the profiler restores the original registrations, so handlers don't pay
+ * anything for the profiler unless it runs.
+ */
+public class HandlerProfiler {
+  private static final DateTimeFormatter FILE_NAME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+  private static final org.objectweb.asm.Type SUBSCRIBER_TYPE =
+      org.objectweb.asm.Type.getType(Mod.EventBusSubscriber.class);
+  private static final @Nullable com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+  private static final List<HandlerStats> STATS = new ArrayList<>();
+  private static final List<Class<?>> PROFILED_CLASSES = new ArrayList<>();
+  private static final List<ProfiledListener> LISTENERS = new ArrayList<>();
+  private static long startTime;
+  private static long stopTime;
+
+  public static synchronized boolean isRunning() {
+    return !PROFILED_CLASSES.isEmpty();
+  }
+
+  public static synchronized void start() {
+    if (isRunning()) return;
+    STATS.clear();
+    startTime = System.nanoTime();
+    stopTime = 0;
+    for (Class<?> subscriber : findSubscribers()) {
+      List<ProfiledListener> listeners = new ArrayList<>();
+      for (Method handler : findHandlers(subscriber)) {
+        ProfiledListener listener = createProfiledListener(handler);
+        if (listener == null) {
+          listeners.clear();
+          break;
+        }
+        listeners.add(listener);
+      }
+      if (listeners.isEmpty()) continue;
+      MinecraftForge.EVENT_BUS.unregister(subscriber);
+      PROFILED_CLASSES.add(subscriber);
+      listeners.forEach(ProfiledListener::register);
+    }
+  }
+
+  public static synchronized void stop() {
+    if (!isRunning()) return;
+    LISTENERS.forEach(MinecraftForge.EVENT_BUS::unregister);
+    LISTENERS.clear();
+    PROFILED_CLASSES.forEach(MinecraftForge.EVENT_BUS::register);
+    PROFILED_CLASSES.clear();
+    stopTime = System.nanoTime();
+  }
+
+  /** @return handler statistics, most expensive first */
+  public static synchronized List<HandlerStats> getStats() {
+    return STATS.stream()
+        .filter(stats -> stats.getInvocations() > 0)
+        .sorted(Comparator.comparingLong(HandlerStats::getNanos).reversed())
+        .toList();
+  }
+
+  /** @return time spent in all profiled handlers since the profiler was started */
+  public static synchronized long getHandlersNanos() {
+    return STATS.stream().mapToLong(HandlerStats::getNanos).sum();
+  }
+
+  public static synchronized long getDurationNanos() {
+    if (startTime == 0) return 0;
+    return (stopTime == 0 ? System.nanoTime() : stopTime) - startTime;
+  }
+
+  public static JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.addProperty("duration_ns", getDurationNanos());
+    json.addProperty("allocations_tracked", THREAD_BEAN != null);
+    JsonArray handlers = new JsonArray();
+    for (HandlerStats stats : getStats()) {
+      JsonObject handler = new JsonObject();
+      handler.addProperty("handler", stats.getName());
+      handler.addProperty("invocations", stats.getInvocations());
+      handler.addProperty("total_ns", stats.getNanos());
+      handler.addProperty("mean_ns", stats.getMeanNanos());
+      handler.addProperty("allocated_bytes", stats.getAllocatedBytes());
+      handlers.add(handler);
+    }
+    json.add("handlers", handlers);
+    return json;
+  }
+
+  /** @return the written file */
+  public static Path dump(Path directory) throws IOException {
+    String fileName = "handlers-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".json";
+    Path file = directory.resolve(fileName);
+    Files.createDirectories(directory);
+    Files.writeString(file, toJson().toString(), StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static List<Class<?>> findSubscribers() {
+    ModFileScanData scanData =
+        ModList.get().getModFileById(SkillTreeMod.MOD_ID).getFile().getScanResult();
+    List<Class<?>> subscribers = new ArrayList<>();
+    for (ModFileScanData.AnnotationData annotation : scanData.getAnnotations()) {
+      if (!SUBSCRIBER_TYPE.equals(annotation.annotationType())) continue;
+      if (!isForgeBusSubscriber(annotation)) continue;
+      try {
+        subscribers.add(Class.forName(annotation.clazz().getClassName()));
+      } catch (ClassNotFoundException exception) {
+        SkillTreeMod.LOGGER.error("Couldn't load event subscriber {}", annotation.clazz());
+      }
+    }
+    return subscribers;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean isForgeBusSubscriber(ModFileScanData.AnnotationData annotation) {
+    Object bus = annotation.annotationData().get("bus");
+    if (bus instanceof ModAnnotation.EnumHolder holder && "MOD".equals(holder.getValue())) {
+      return false;
+    }
+    Object sides = annotation.annotationData().get("value");
+    if (sides == null) return true;
+    return ((List<ModAnnotation.EnumHolder>) sides)
+        .stream().anyMatch(side -> Dist.valueOf(side.getValue()) == FMLEnvironment.dist);
+  }
+
+  private static List<Method> findHandlers(Class<?> subscriber) {
+    List<Method> handlers = new ArrayList<>();
+    for (Method method : subscriber.getDeclaredMethods()) {
+      if (!method.isAnnotationPresent(SubscribeEvent.class)) continue;
+      if (!Modifier.isStatic(method.getModifiers())) continue;
+      if (method.getParameterCount() != 1) continue;
+      handlers.add(method);
+    }
+    return handlers;
+  }
+
+  /**
+   * @return a listener that registers the timed handler, or null if the handler can't be wrapped,
+   *     in which case its class is left as it is
+   */
+  @SuppressWarnings("unchecked")
+  private static @Nullable ProfiledListener createProfiledListener(Method method) {
+    Class<? extends Event> eventType = (Class<? extends Event>) method.getParameterTypes()[0];
+    String name =
+        method.getDeclaringClass().getSimpleName()
+            + "."
+            + method.getName()
+            + "("
+            + eventType.getSimpleName()
+            + ")";
+    @Nullable Class<?> genericFilter = null;
+    if (GenericEvent.class.isAssignableFrom(eventType)) {
+      if (!(method.getGenericParameterTypes()[0] instanceof ParameterizedType parameterized)) {
+        return null;
+      }
+      Type filter = parameterized.getActualTypeArguments()[0];
+      if (filter instanceof ParameterizedType filterType) filter = filterType.getRawType();
+      if (!(filter instanceof Class<?> filterClass)) return null;
+      genericFilter = filterClass;
+    }
+    try {
+      method.setAccessible(true);
+      MethodHandle handle = MethodHandles.lookup().unreflect(method);
+      SubscribeEvent subscription = method.getAnnotation(SubscribeEvent.class);
+      return new ProfiledListener(
+          new HandlerStats(name), handle, eventType, genericFilter, subscription);
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      SkillTreeMod.LOGGER.error("Couldn't profile event handler {}", name);
+      return null;
+    }
+  }
+
+  private static long getAllocatedBytes() {
+    if (THREAD_BEAN == null) return 0;
+    return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static @Nullable com.sun.management.ThreadMXBean getThreadBean() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)) {
+      return null;
+    }
+    if (!bean.isThreadAllocatedMemorySupported()) return null;
+    bean.setThreadAllocatedMemoryEnabled(true);
+    return bean;
+  }
+
+  private record ProfiledListener(
+      HandlerStats stats,
+      MethodHandle handle,
+      Class<? extends Event> eventType,
+      @Nullable Class<?> genericFilter,
+      SubscribeEvent subscription)
+      implements Consumer<Event> {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void register() {
+      if (genericFilter != null) {
+        MinecraftForge.EVENT_BUS.addGenericListener(
+            (Class) genericFilter,
+            subscription.priority(),
+            subscription.receiveCanceled(),
+            (Class) eventType,
+            (Consumer) this);
+      } else {
+        MinecraftForge.EVENT_BUS.addListener(
+            subscription.priority(), subscription.receiveCanceled(), (Class) eventType, this);
+      }
+      STATS.add(stats);
+      LISTENERS.add(this);
+    }
+
+    @Override
+    public void accept(Event event) {
+      long allocatedBefore = getAllocatedBytes();
+      long start = System.nanoTime();
+      try {
+        handle.invoke(event);
+      } catch (RuntimeException | Error exception) {
+        throw exception;
+      } catch (Throwable throwable) {
+        throw new RuntimeException(throwable);
+      } finally {
+        stats.record(System.nanoTime() - start, getAllocatedBytes() - allocatedBefore);
+      }
+    }
+  }
+
+  public static class HandlerStats {
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private HandlerStats(String name) {
+      this.name = Objects.requireNonNull(name);
+    }
+
+    private void record(long duration, long allocated) {
+      invocations.increment();
+      nanos.add(duration);
+      allocatedBytes.add(Math.max(0, allocated));
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getInvocations() {
+      return invocations.sum();
+    }
+
+    public long getNanos() {
+      return nanos.sum();
+    }
+
+    public long getMeanNanos() {
+      long count = getInvocations();
+      return count == 0 ? 0 : getNanos() / count;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes.sum();
+    }
+  }
+}
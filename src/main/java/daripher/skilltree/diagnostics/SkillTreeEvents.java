@@ -0,0 +1,175 @@
+package daripher.skilltree.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.registries.ForgeRegistries;
+
+/**
+ * Java Flight Recorder events of the mod. Events are created and started around the measured code
+ * and only filled in if the recording wants them, so they cost close to nothing when JFR is off.
+ */
+public class SkillTreeEvents {
+  private static final String CATEGORY = "Passive Skill Tree";
+
+  @Name("skilltree.BonusLookup")
+  @Label("Skill Bonus Lookup")
+  @Description("Collecting bonuses of one type from the player's skills and effects")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class BonusLookup extends Event {
+    @Label("Player")
+    public String player;
+
+    @Label("Bonus Type")
+    public String bonusType;
+
+    @Label("Bonuses Found")
+    public int bonuses;
+
+    public void finish(Player player, Class<?> bonusType, int bonuses) {
+      if (!shouldCommit()) return;
+      this.player = player.getGameProfile().getName();
+      this.bonusType = bonusType.getSimpleName();
+      this.bonuses = bonuses;
+      commit();
+    }
+  }
+
+  @Name("skilltree.ConditionEvaluation")
+  @Label("Skill Bonus Condition")
+  @Description("Evaluating the condition of a ticking skill bonus")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class ConditionEvaluation extends Event {
+    @Label("Player")
+    public String player;
+
+    @Label("Bonus Type")
+    public String bonusType;
+
+    @Label("Condition Met")
+    public boolean met;
+
+    public void finish(Player player, String bonusType, boolean met) {
+      if (!shouldCommit()) return;
+      this.player = player.getGameProfile().getName();
+      this.bonusType = bonusType;
+      this.met = met;
+      commit();
+    }
+  }
+
+  @Name("skilltree.DamageStage")
+  @Label("Skill Damage Stage")
+  @Description("One stage of the damage pipeline, including bonus lookup and condition checks")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class DamageStage extends Event {
+    @Label("Player")
+    public String player;
+
+    @Label("Bonus Type")
+    public String bonusType;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Bonuses Evaluated")
+    public int bonuses;
+
+    @Label("Damage Before")
+    public float damageBefore;
+
+    @Label("Damage After")
+    public float damageAfter;
+
+    public void finish(
+        Player player,
+        Class<?> bonusType,
+        String stage,
+        int bonuses,
+        float damageBefore,
+        float damageAfter) {
+      if (!shouldCommit()) return;
+      this.player = player.getGameProfile().getName();
+      this.bonusType = bonusType.getSimpleName();
+      this.stage = stage;
+      this.bonuses = bonuses;
+      this.damageBefore = damageBefore;
+      this.damageAfter = damageAfter;
+      commit();
+    }
+  }
+
+  @Name("skilltree.ItemBonusDecode")
+  @Label("Item Bonus Decode")
+  @Description("Reading skill bonuses from an item stack's tag")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class ItemBonusDecode extends Event {
+    @Label("Item")
+    public String item;
+
+    @Label("Bonuses Decoded")
+    public int bonuses;
+
+    public void finish(ItemStack stack, int bonuses) {
+      if (!shouldCommit()) return;
+      this.item = String.valueOf(ForgeRegistries.ITEMS.getKey(stack.getItem()));
+      this.bonuses = bonuses;
+      commit();
+    }
+  }
+
+  @Name("skilltree.SkillsReload")
+  @Label("Skills Reload")
+  @Description("Rebuilding the skill catalog from data packs")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class SkillsReload extends Event {
+    @Label("Files")
+    public int files;
+
+    @Label("Skills Loaded")
+    public int skills;
+
+    public void finish(int files, int skills) {
+      if (!shouldCommit()) return;
+      this.files = files;
+      this.skills = skills;
+      commit();
+    }
+  }
+
+  @Name("skilltree.Packet")
+  @Label("Skill Tree Packet")
+  @Description("Encoding or decoding a network message of the mod")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class Packet extends Event {
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Encoding")
+    public boolean encoding;
+
+    @Label("Size")
+    @DataAmount
+    public int size;
+
+    public void finish(Class<?> messageType, boolean encoding, int size) {
+      if (!shouldCommit()) return;
+      this.messageType = messageType.getSimpleName();
+      this.encoding = encoding;
+      this.size = size;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package daripher.skilltree.diagnostics;
+
+import com.google.gson.JsonObject;
+import daripher.skilltree.SkillTreeMod;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+/**
+ * Counters and histograms of the mod's hot paths. Values are collected into a window that is closed
+ * every {@link #WINDOW_TICKS} server ticks, the closed window can be viewed with the metrics
+ * command and, if the {@code skilltree.metrics.sink} property is set, is appended to a JSON lines
+ * file in the server directory.
+ */
+@EventBusSubscriber(modid = SkillTreeMod.MOD_ID)
+public class SkillTreeMetrics {
+  private static final String PROPERTY_PREFIX = "skilltree.metrics.";
+  public static final int WINDOW_TICKS = Integer.getInteger(PROPERTY_PREFIX + "window", 1200);
+  private static final boolean SINK_ENABLED = Boolean.getBoolean(PROPERTY_PREFIX + "sink");
+  private static final String SINK_FILE = "skilltree/metrics.jsonl";
+  private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+  private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+  public static final Counter BONUS_LOOKUPS = counter("bonus_lookups");
+  public static final Counter TICKING_BONUS_EVALUATIONS = counter("ticking_bonus_evaluations");
+  public static final Counter ITEM_BONUS_DECODES = counter("item_bonus_decodes");
+  public static final Counter ITEM_BONUS_DECODE_NANOS = counter("item_bonus_decode_nanos");
+  public static final Counter SKILLS_LEARNED = counter("skills_learned");
+  public static final Counter SKILLS_REFUNDED = counter("skills_refunded");
+  public static final Counter TREE_RESETS = counter("tree_resets");
+  public static final Histogram RELOAD_DURATION = histogram("reload_duration_ms");
+  private static int window_ticks;
+  private static long window_start = System.currentTimeMillis();
+  private static @Nullable JsonObject last_window;
+
+  /** @return the counter with that name, created on first request */
+  public static Counter counter(String name) {
+    return COUNTERS.computeIfAbsent(name, Counter::new);
+  }
+
+  /** @return the histogram with that name, created on first request */
+  public static Histogram histogram(String name) {
+    return HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+  }
+
+  /** @return the last closed window, or null if no window was closed yet */
+  public static synchronized @Nullable JsonObject getLastWindow() {
+    return last_window;
+  }
+
+  @SubscribeEvent
+  public static void countTick(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END) return;
+    if (++window_ticks < WINDOW_TICKS) return;
+    JsonObject window = closeWindow();
+    if (SINK_ENABLED) publish(event.getServer(), window);
+  }
+
+  @SubscribeEvent
+  public static void resetWindow(ServerStoppedEvent event) {
+    closeWindow();
+    synchronized (SkillTreeMetrics.class) {
+      last_window = null;
+    }
+  }
+
+  private static synchronized JsonObject closeWindow() {
+    long now = System.currentTimeMillis();
+    JsonObject window = new JsonObject();
+    window.addProperty("start", window_start);
+    window.addProperty("duration_ms", now - window_start);
+    window.addProperty("ticks", window_ticks);
+    Map<String, Long> counters = new LinkedHashMap<>();
+    COUNTERS.values().stream()
+        .sorted((a, b) -> a.name.compareTo(b.name))
+        .forEach(counter -> counters.put(counter.name, counter.close()));
+    JsonObject countersJson = new JsonObject();
+    counters.forEach(countersJson::addProperty);
+    window.add("counters", countersJson);
+    JsonObject rates = new JsonObject();
+    int ticks = Math.max(1, window_ticks);
+    rates.addProperty("bonus_lookups_per_tick", counters.get(BONUS_LOOKUPS.name) / (double) ticks);
+    rates.addProperty(
+        "ticking_bonus_evaluations_per_tick",
+        counters.get(TICKING_BONUS_EVALUATIONS.name) / (double) ticks);
+    long decodes = counters.get(ITEM_BONUS_DECODES.name);
+    long decodeNanos = counters.get(ITEM_BONUS_DECODE_NANOS.name);
+    rates.addProperty("item_bonus_decodes_per_tick", decodes / (double) ticks);
+    rates.addProperty(
+        "item_bonus_decode_mean_us", decodes == 0 ? 0 : decodeNanos / 1000D / decodes);
+    double minutes = Math.max(1, now - window_start) / 60_000D;
+    rates.addProperty("skills_learned_per_minute", counters.get(SKILLS_LEARNED.name) / minutes);
+    rates.addProperty("skills_refunded_per_minute", counters.get(SKILLS_REFUNDED.name) / minutes);
+    rates.addProperty("tree_resets_per_minute", counters.get(TREE_RESETS.name) / minutes);
+    window.add("rates", rates);
+    JsonObject histograms = new JsonObject();
+    HISTOGRAMS.values().forEach(histogram -> histograms.add(histogram.name, histogram.close()));
+    window.add("histograms", histograms);
+    window_ticks = 0;
+    window_start = now;
+    last_window = window;
+    return window;
+  }
+
+  private static void publish(MinecraftServer server, JsonObject window) {
+    Path file = server.getServerDirectory().toPath().resolve(SINK_FILE);
+    String line = window + System.lineSeparator();
+    Util.ioPool()
+        .execute(
+            () -> {
+              try {
+                Files.createDirectories(file.getParent());
+                Files.writeString(
+                    file,
+                    line,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+              } catch (IOException exception) {
+                SkillTreeMod.LOGGER.error("Couldn't write metrics to {}", file, exception);
+              }
+            });
+  }
+
+  public static class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    private Counter(String name) {
+      this.name = Objects.requireNonNull(name);
+    }
+
+    public void increment() {
+      value.increment();
+    }
+
+    public void add(long amount) {
+      value.add(amount);
+    }
+
+    private long close() {
+      return value.sumThenReset();
+    }
+  }
+
+  /**
+   * Keeps the values recorded in the current window. Only the first {@link #CAPACITY} values of a
+   * window are kept, which is plenty for the rare events it is meant for.
+   */
+  public static class Histogram {
+    private static final int CAPACITY = 1024;
+    private final String name;
+    private final double[] values = new double[CAPACITY];
+    private int size;
+    private long count;
+
+    private Histogram(String name) {
+      this.name = Objects.requireNonNull(name);
+    }
+
+    public synchronized void record(double value) {
+      count++;
+      if (size < CAPACITY) values[size++] = value;
+    }
+
+    private synchronized JsonObject close() {
+      JsonObject json = new JsonObject();
+      json.addProperty("count", count);
+      if (size > 0) {
+        double[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        json.addProperty("mean", Arrays.stream(sorted).average().orElse(0));
+        json.addProperty("p50", sorted[(size - 1) / 2]);
+        json.addProperty("p99", sorted[(int) Math.ceil(size * 0.99) - 1]);
+        json.addProperty("max", sorted[size - 1]);
+      }
+      size = 0;
+      count = 0;
+      return json;
+    }
+  }
+}
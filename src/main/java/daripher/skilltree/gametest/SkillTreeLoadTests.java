@@ -0,0 +1,253 @@
+package daripher.skilltree.gametest;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.authlib.GameProfile;
+import daripher.skilltree.SkillTreeMod;
+import daripher.skilltree.capability.skill.IPlayerSkills;
+import daripher.skilltree.capability.skill.PlayerSkillsProvider;
+import daripher.skilltree.data.reloader.SkillsReloader;
+import daripher.skilltree.diagnostics.HandlerProfiler;
+import daripher.skilltree.init.PSTItems;
+import daripher.skilltree.item.gem.GemHelper;
+import daripher.skilltree.skill.PassiveSkill;
+import daripher.skilltree.skill.SkillGraph;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.monster.Zombie;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.event.ForgeEventFactory;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import top.theillusivec4.curios.api.CuriosApi;
+
+/**
+ * Drives a crowd of fake players with learned skills, socketed gems and equipped curios through
+ * combat, mining and crafting, and measures how long the mod's event handlers take per server tick.
+ * Handlers are timed through the {@link HandlerProfiler}, so vanilla combat, mining and crafting
+ * don't count. Runs fail if the handlers get slower than the stored baseline by more than the
+ * tolerance. Without a baseline the current numbers are recorded as one, so it should be created on
+ * the reference machine and committed, and afterwards only rewritten when {@code
+ * skilltree.loadtest.update_baseline} is set.
+ */
+@GameTestHolder(SkillTreeMod.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class SkillTreeLoadTests {
+  private static final String PROPERTY_PREFIX = "skilltree.loadtest.";
+  private static final int WARMUP_TICKS = 40;
+  private static final int MEASURED_TICKS = 200;
+  // every player gets its own mining block and zombie spot in the arena
+  private static final int ARENA_COLUMNS = 7;
+  private static final int ARENA_ROWS = 3;
+
+  @GameTest(template = "load_arena", timeoutTicks = WARMUP_TICKS + MEASURED_TICKS + 20)
+  public static void skillHandlersTickTime(GameTestHelper helper) {
+    SkillGraph graph = SkillsReloader.getSkillGraph();
+    if (graph.getStartingPoints().isEmpty()) {
+      helper.fail("No skills are loaded");
+      return;
+    }
+    if (HandlerProfiler.isRunning()) {
+      helper.fail("Handler profiler is already running");
+      return;
+    }
+    int playersCount = Integer.getInteger(PROPERTY_PREFIX + "players", 20);
+    if (playersCount > ARENA_COLUMNS * ARENA_ROWS) {
+      SkillTreeMod.LOGGER.warn("Load test arena only fits {} players", ARENA_COLUMNS * ARENA_ROWS);
+      playersCount = ARENA_COLUMNS * ARENA_ROWS;
+    }
+    int skillsCount = Integer.getInteger(PROPERTY_PREFIX + "skills", 60);
+    List<LoadTestPlayer> players = new ArrayList<>();
+    for (int i = 0; i < playersCount; i++) {
+      players.add(new LoadTestPlayer(helper, graph, i, skillsCount));
+    }
+    LongArrayList tickTimes = new LongArrayList();
+    HandlerProfiler.start();
+    for (int tick = 1; tick <= WARMUP_TICKS + MEASURED_TICKS; tick++) {
+      boolean measured = tick > WARMUP_TICKS;
+      helper.runAfterDelay(
+          tick,
+          () -> {
+            long start = HandlerProfiler.getHandlersNanos();
+            players.forEach(LoadTestPlayer::tick);
+            if (measured) tickTimes.add(HandlerProfiler.getHandlersNanos() - start);
+          });
+    }
+    helper.runAfterDelay(
+        WARMUP_TICKS + MEASURED_TICKS + 1,
+        () -> {
+          HandlerProfiler.stop();
+          players.forEach(LoadTestPlayer::remove);
+          checkBaseline(helper, tickTimes);
+        });
+  }
+
+  private static void checkBaseline(GameTestHelper helper, LongArrayList tickTimes) {
+    long[] sorted = tickTimes.toLongArray();
+    Arrays.sort(sorted);
+    double mean = tickTimes.longStream().average().orElse(0) / 1_000_000D;
+    double p99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1_000_000D;
+    SkillTreeMod.LOGGER.info("Skill handlers time per tick: mean {} ms, p99 {} ms", mean, p99);
+    String baselinePath = System.getProperty(PROPERTY_PREFIX + "baseline");
+    if (baselinePath == null) {
+      helper.fail("No baseline file is set, run the test through the gameTestServer run");
+      return;
+    }
+    Path baselineFile = Paths.get(baselinePath);
+    try {
+      boolean missing = !Files.exists(baselineFile);
+      if (missing || Boolean.getBoolean(PROPERTY_PREFIX + "update_baseline")) {
+        JsonObject baseline = new JsonObject();
+        baseline.addProperty("mean", mean);
+        baseline.addProperty("p99", p99);
+        if (baselineFile.getParent() != null) Files.createDirectories(baselineFile.getParent());
+        Files.writeString(baselineFile, baseline.toString(), StandardCharsets.UTF_8);
+        if (missing) {
+          SkillTreeMod.LOGGER.warn("No baseline, recorded current numbers to {}", baselineFile);
+        }
+        helper.succeed();
+        return;
+      }
+      JsonObject baseline =
+          JsonParser.parseString(Files.readString(baselineFile, StandardCharsets.UTF_8))
+              .getAsJsonObject();
+      double tolerance =
+          1 + Double.parseDouble(System.getProperty(PROPERTY_PREFIX + "tolerance", "0.2"));
+      double baselineMean = baseline.get("mean").getAsDouble();
+      double baselineP99 = baseline.get("p99").getAsDouble();
+      if (mean > baselineMean * tolerance || p99 > baselineP99 * tolerance) {
+        helper.fail(
+            String.format(
+                "Handler time regressed: mean %.3f ms (baseline %.3f), p99 %.3f ms (baseline %.3f)",
+                mean, baselineMean, p99, baselineP99));
+        return;
+      }
+      helper.succeed();
+    } catch (IOException exception) {
+      helper.fail("Couldn't access baseline file " + baselineFile + ": " + exception);
+    }
+  }
+
+  private static class LoadTestPlayer {
+    private final GameTestHelper helper;
+    private final FakePlayer player;
+    private final BlockPos miningPos;
+    private final BlockPos zombiePos;
+    private Zombie zombie;
+
+    private LoadTestPlayer(GameTestHelper helper, SkillGraph graph, int index, int skillsCount) {
+      this.helper = helper;
+      UUID playerId = UUID.nameUUIDFromBytes(("skilltree_load_test_" + index).getBytes());
+      this.player =
+          FakePlayerFactory.get(helper.getLevel(), new GameProfile(playerId, "load_test_" + index));
+      int column = index % ARENA_COLUMNS + 1;
+      int row = index / ARENA_COLUMNS;
+      this.miningPos = new BlockPos(column, 1, 1 + row);
+      this.zombiePos = new BlockPos(column, 1, 7 - row);
+      player.moveTo(Vec3.atBottomCenterOf(helper.absolutePos(miningPos.above())));
+      learnSkills(graph, index, skillsCount);
+      equipGear();
+      zombie = helper.spawnWithNoFreeWill(EntityType.ZOMBIE, zombiePos);
+    }
+
+    /** Learns skills in breadth-first order from a starting point, so every step is valid. */
+    private void learnSkills(SkillGraph graph, int index, int skillsCount) {
+      IPlayerSkills skills = PlayerSkillsProvider.get(player);
+      skills.resetTree(player);
+      skills.setSkillPoints(skillsCount);
+      int[] startingPoints = graph.getStartingPoints().stream().toArray();
+      int[] queue = new int[graph.size()];
+      BitSet visited = new BitSet();
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = startingPoints[index % startingPoints.length];
+      visited.set(queue[0]);
+      while (head < tail && skills.getSkillPoints() > 0) {
+        int skill = queue[head++];
+        PassiveSkill passiveSkill = graph.getSkill(skill);
+        if (skills.learnSkill(player, passiveSkill)) passiveSkill.learn(player, true);
+        for (int n = 0; n < graph.getDegree(skill); n++) {
+          int neighbour = graph.getNeighbour(skill, n);
+          if (visited.get(neighbour)) continue;
+          visited.set(neighbour);
+          queue[tail++] = neighbour;
+        }
+      }
+    }
+
+    private void equipGear() {
+      ItemStack weapon = new ItemStack(Items.DIAMOND_SWORD);
+      GemHelper.insertGem(player, weapon, new ItemStack(PSTItems.RUBY.get()), 0, 1);
+      GemHelper.insertGem(player, weapon, new ItemStack(PSTItems.CITRINE.get()), 1, 1);
+      player.setItemSlot(EquipmentSlot.MAINHAND, weapon);
+      ItemStack chestplate = new ItemStack(Items.DIAMOND_CHESTPLATE);
+      GemHelper.insertGem(player, chestplate, new ItemStack(PSTItems.ONYX.get()), 0, 1);
+      player.setItemSlot(EquipmentSlot.CHEST, chestplate);
+      equipCurio("ring", new ItemStack(PSTItems.GOLDEN_RING.get()));
+      equipCurio("necklace", new ItemStack(PSTItems.SIMPLE_NECKLACE.get()));
+    }
+
+    private void equipCurio(String slot, ItemStack stack) {
+      CuriosApi.getCuriosHelper()
+          .getCuriosHandler(player)
+          .ifPresent(
+              curios ->
+                  curios
+                      .getStacksHandler(slot)
+                      .ifPresent(handler -> handler.getStacks().setStackInSlot(0, stack)));
+    }
+
+    private void tick() {
+      MinecraftForge.EVENT_BUS.post(new TickEvent.PlayerTickEvent(TickEvent.Phase.END, player));
+      fight();
+      mine();
+      craft();
+    }
+
+    private void fight() {
+      if (!zombie.isAlive()) zombie = helper.spawnWithNoFreeWill(EntityType.ZOMBIE, zombiePos);
+      player.resetAttackStrengthTicker();
+      player.attack(zombie);
+      zombie.setHealth(zombie.getMaxHealth());
+    }
+
+    private void mine() {
+      helper.setBlock(miningPos, Blocks.STONE);
+      player.getDigSpeed(Blocks.STONE.defaultBlockState(), helper.absolutePos(miningPos));
+      player.gameMode.destroyBlock(helper.absolutePos(miningPos));
+    }
+
+    private void craft() {
+      ItemStack result = new ItemStack(Items.IRON_SWORD);
+      ForgeEventFactory.firePlayerCraftingEvent(player, result, new SimpleContainer(9));
+      ForgeEventFactory.firePlayerSmeltedEvent(player, new ItemStack(Items.IRON_INGOT));
+    }
+
+    private void remove() {
+      PlayerSkillsProvider.get(player).resetTree(player);
+      if (zombie.isAlive()) zombie.discard();
+    }
+  }
+}
@@ -4,6 +4,8 @@ import com.google.common.collect.ImmutableList;
 import daripher.skilltree.api.HasAdditionalSockets;
 import daripher.skilltree.compat.apotheosis.ApotheosisCompatibility;
 import daripher.skilltree.config.Config;
+import daripher.skilltree.diagnostics.SkillTreeEvents;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
 import daripher.skilltree.init.PSTRegistries;
 import daripher.skilltree.init.PSTTags;
 import daripher.skilltree.skill.bonus.item.ItemBonus;
@@ -238,12 +240,20 @@ public class ItemHelper {
   public static List<ItemBonus<?>> getItemBonuses(ItemStack stack) {
     CompoundTag tag = stack.getTag();
     if (tag == null) return ImmutableList.of();
+    long start = System.nanoTime();
+    SkillTreeEvents.ItemBonusDecode decode = new SkillTreeEvents.ItemBonusDecode();
+    decode.begin();
     ListTag bonusesTag = tag.getList("SkillBonuses", Tag.TAG_COMPOUND);
-    return bonusesTag.stream()
-        .map(CompoundTag.class::cast)
-        .map(ItemHelper::deserializeBonus)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+    List<ItemBonus<?>> bonuses =
+        bonusesTag.stream()
+            .map(CompoundTag.class::cast)
+            .map(ItemHelper::deserializeBonus)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    decode.finish(stack, bonuses.size());
+    SkillTreeMetrics.ITEM_BONUS_DECODES.increment();
+    SkillTreeMetrics.ITEM_BONUS_DECODE_NANOS.add(System.nanoTime() - start);
+    return bonuses;
   }
 
   public static <T extends ItemBonus<?>> List<T> getItemBonuses(ItemStack stack, Class<T> aClass) {
@@ -0,0 +1,16 @@
+package daripher.skilltree.mixin.minecraft;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import daripher.skilltree.client.screen.FrameProfiler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(value = RenderSystem.class, remap = false)
+public class RenderSystemMixin {
+  @Inject(method = "drawElements", at = @At("HEAD"))
+  private static void countDrawCall(int mode, int count, int type, CallbackInfo callbackInfo) {
+    FrameProfiler.countDrawCall();
+  }
+}
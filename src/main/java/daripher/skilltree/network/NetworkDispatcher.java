@@ -30,29 +30,31 @@ public class NetworkDispatcher {
     network_channel.registerMessage(
         1,
         SyncSkillsMessage.class,
-        SyncSkillsMessage::encode,
-        SyncSkillsMessage::decode,
+        NetworkHelper.recordedEncoder(SyncSkillsMessage.class, SyncSkillsMessage::encode),
+        NetworkHelper.recordedDecoder(SyncSkillsMessage.class, SyncSkillsMessage::decode),
         SyncSkillsMessage::receive,
         Optional.of(NetworkDirection.PLAY_TO_CLIENT));
     network_channel.registerMessage(
         2,
         SyncPlayerSkillsMessage.class,
-        SyncPlayerSkillsMessage::encode,
-        SyncPlayerSkillsMessage::decode,
+        NetworkHelper.recordedEncoder(
+            SyncPlayerSkillsMessage.class, SyncPlayerSkillsMessage::encode),
+        NetworkHelper.recordedDecoder(
+            SyncPlayerSkillsMessage.class, SyncPlayerSkillsMessage::decode),
         SyncPlayerSkillsMessage::receive,
         Optional.of(NetworkDirection.PLAY_TO_CLIENT));
     network_channel.registerMessage(
         3,
         LearnSkillMessage.class,
-        LearnSkillMessage::encode,
-        LearnSkillMessage::decode,
+        NetworkHelper.recordedEncoder(LearnSkillMessage.class, LearnSkillMessage::encode),
+        NetworkHelper.recordedDecoder(LearnSkillMessage.class, LearnSkillMessage::decode),
         LearnSkillMessage::receive,
         Optional.of(NetworkDirection.PLAY_TO_SERVER));
     network_channel.registerMessage(
         4,
         GainSkillPointMessage.class,
-        GainSkillPointMessage::encode,
-        GainSkillPointMessage::decode,
+        NetworkHelper.recordedEncoder(GainSkillPointMessage.class, GainSkillPointMessage::encode),
+        NetworkHelper.recordedDecoder(GainSkillPointMessage.class, GainSkillPointMessage::decode),
         GainSkillPointMessage::receive,
         Optional.of(NetworkDirection.PLAY_TO_SERVER));
   }
@@ -1,6 +1,8 @@
 package daripher.skilltree.network;
 
 import com.mojang.logging.LogUtils;
+import daripher.skilltree.diagnostics.SkillTreeEvents;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
 import daripher.skilltree.init.PSTRegistries;
 import daripher.skilltree.skill.PassiveSkill;
 import daripher.skilltree.skill.PassiveSkillTree;
@@ -12,6 +14,8 @@ import daripher.skilltree.skill.bonus.condition.living.LivingCondition;
 import daripher.skilltree.skill.bonus.item.ItemBonus;
 import daripher.skilltree.skill.bonus.multiplier.SkillBonusMultiplier;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import net.minecraft.network.FriendlyByteBuf;
@@ -29,6 +33,51 @@ import top.theillusivec4.curios.common.CuriosHelper.SlotAttributeWrapper;
 public class NetworkHelper {
   private static final Logger LOGGER = LogUtils.getLogger();
 
+  /**
+   * Wraps a message encoder, so that every encoding is reported to the flight recorder and counted
+   * in the metrics.
+   */
+  public static <T> BiConsumer<T, FriendlyByteBuf> recordedEncoder(
+      Class<T> messageType, BiConsumer<T, FriendlyByteBuf> encoder) {
+    SkillTreeMetrics.Counter packets =
+        SkillTreeMetrics.counter("packets_sent." + messageType.getSimpleName());
+    SkillTreeMetrics.Counter bytes =
+        SkillTreeMetrics.counter("bytes_sent." + messageType.getSimpleName());
+    return (message, buf) -> {
+      SkillTreeEvents.Packet packet = new SkillTreeEvents.Packet();
+      packet.begin();
+      int start = buf.writerIndex();
+      encoder.accept(message, buf);
+      int size = buf.writerIndex() - start;
+      packets.increment();
+      bytes.add(size);
+      packet.finish(messageType, true, size);
+    };
+  }
+
+  /**
+   * Wraps a message decoder, so that every decoding is reported to the flight recorder and counted
+   * in the metrics.
+   */
+  public static <T> Function<FriendlyByteBuf, T> recordedDecoder(
+      Class<T> messageType, Function<FriendlyByteBuf, T> decoder) {
+    SkillTreeMetrics.Counter packets =
+        SkillTreeMetrics.counter("packets_received." + messageType.getSimpleName());
+    SkillTreeMetrics.Counter bytes =
+        SkillTreeMetrics.counter("bytes_received." + messageType.getSimpleName());
+    return buf -> {
+      SkillTreeEvents.Packet packet = new SkillTreeEvents.Packet();
+      packet.begin();
+      int start = buf.readerIndex();
+      T message = decoder.apply(buf);
+      int size = buf.readerIndex() - start;
+      packets.increment();
+      bytes.add(size);
+      packet.finish(messageType, false, size);
+      return message;
+    };
+  }
+
   public static void writeNullableResourceLocation(
       FriendlyByteBuf buf, @Nullable ResourceLocation location) {
     buf.writeBoolean(location != null);
@@ -59,8 +59,8 @@ public class SyncPlayerSkillsMessage {
         .forEach(skillsCapability.getPlayerSkills()::add);
     skillsCapability.setSkillPoints(message.skillPoints);
     if (minecraft.screen instanceof SkillTreeScreen skillTreeScreen) {
-      skillTreeScreen.skillPoints = skillsCapability.getSkillPoints();
-      skillTreeScreen.init();
+      skillTreeScreen.onSkillsSynced(
+          skillsCapability.getPlayerSkills(), skillsCapability.getSkillPoints());
     }
   }
 
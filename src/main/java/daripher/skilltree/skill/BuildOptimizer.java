@@ -0,0 +1,184 @@
+package daripher.skilltree.skill;
+
+import daripher.skilltree.skill.bonus.SkillBonus;
+import daripher.skilltree.skill.bonus.player.AttributeBonus;
+import daripher.skilltree.skill.bonus.player.DamageBonus;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+
+/**
+ * Searches the skill graph for the connected set of skills that maximizes a single stat within a
+ * point budget. Every starting point is searched by its own fork-join task, each running a beam
+ * search that grows the build by whole paths towards valuable skills, so connector skills without
+ * the stat don't stall the search.
+ */
+public class BuildOptimizer {
+  private static final int BEAM_WIDTH = 16;
+  private static final int BRANCHING = 8;
+  private static final Comparator<Build> BEST_FIRST =
+      Comparator.comparingDouble(Build::value).reversed().thenComparingInt(Build::cost);
+  private final SkillGraph graph;
+  private final double[] values;
+  private final int budget;
+  private final long deadline;
+
+  private BuildOptimizer(SkillGraph graph, Target target, int budget, long timeLimitMillis) {
+    this.graph = graph;
+    this.values = new double[graph.size()];
+    for (int i = 0; i < values.length; i++) values[i] = target.getValue(graph.getSkill(i));
+    this.budget = budget;
+    this.deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+  }
+
+  /**
+   * @param learned skills that are already learned and don't cost points
+   * @param budget amount of points to spend on top of the learned skills
+   * @return the best build found before the time limit, including the learned skills
+   */
+  public static Build optimize(
+      SkillGraph graph, BitSet learned, int budget, Target target, long timeLimitMillis) {
+    BuildOptimizer optimizer = new BuildOptimizer(graph, target, budget, timeLimitMillis);
+    List<Build> seeds = new ArrayList<>();
+    if (learned.isEmpty()) {
+      BitSet startingPoints = graph.getStartingPoints();
+      for (int i = startingPoints.nextSetBit(0); i >= 0; i = startingPoints.nextSetBit(i + 1)) {
+        if (budget == 0) break;
+        BitSet skills = new BitSet();
+        skills.set(i);
+        seeds.add(new Build(skills, 1, optimizer.values[i]));
+      }
+    } else {
+      seeds.add(new Build((BitSet) learned.clone(), 0, optimizer.getValue(learned)));
+    }
+    List<SearchTask> tasks = seeds.stream().map(optimizer::createTask).toList();
+    return ForkJoinTask.invokeAll(tasks).stream()
+        .map(ForkJoinTask::join)
+        .min(BEST_FIRST)
+        .orElseGet(() -> new Build(new BitSet(), 0, 0));
+  }
+
+  private SearchTask createTask(Build seed) {
+    return new SearchTask(seed);
+  }
+
+  private double getValue(BitSet skills) {
+    double value = 0;
+    for (int i = skills.nextSetBit(0); i >= 0; i = skills.nextSetBit(i + 1)) value += values[i];
+    return value;
+  }
+
+  public record Build(BitSet skills, int cost, double value) {}
+
+  public record Target(SkillBonus<?> template, ToDoubleFunction<SkillBonus<?>> amount) {
+    public static Target attribute(Attribute attribute, AttributeModifier.Operation operation) {
+      AttributeModifier modifier = new AttributeModifier("Target", 0, operation);
+      return new Target(
+          new AttributeBonus(attribute, modifier),
+          bonus -> ((AttributeBonus) bonus).getModifier().getAmount());
+    }
+
+    public static Target damage(AttributeModifier.Operation operation) {
+      return new Target(new DamageBonus(0, operation), bonus -> ((DamageBonus) bonus).getAmount());
+    }
+
+    public double getValue(PassiveSkill skill) {
+      SkillBonus<?> merged = null;
+      for (SkillBonus<?> bonus : skill.getBonuses()) {
+        if (!template.canMerge(bonus)) continue;
+        merged = merged == null ? bonus : merged.merge(bonus);
+      }
+      return merged == null ? 0 : amount.applyAsDouble(merged);
+    }
+  }
+
+  private class SearchTask extends RecursiveTask<Build> {
+    private final Build seed;
+    private final int[] visited = new int[graph.size()];
+    private final int[] previous = new int[graph.size()];
+    private final int[] depth = new int[graph.size()];
+    private final double[] gain = new double[graph.size()];
+    private final int[] queue = new int[graph.size()];
+    private int search;
+
+    private SearchTask(Build seed) {
+      this.seed = seed;
+    }
+
+    @Override
+    protected Build compute() {
+      Build best = seed;
+      List<Build> beam = List.of(seed);
+      while (!beam.isEmpty() && System.nanoTime() < deadline) {
+        Map<BitSet, Build> next = new LinkedHashMap<>();
+        for (Build build : beam) {
+          for (Build expanded : expand(build)) {
+            next.putIfAbsent(expanded.skills(), expanded);
+            if (BEST_FIRST.compare(expanded, best) < 0) best = expanded;
+          }
+        }
+        beam = next.values().stream().sorted(BEST_FIRST).limit(BEAM_WIDTH).toList();
+      }
+      return best;
+    }
+
+    /**
+     * Breadth-first search from the whole build, limited by the points left. Every reached skill
+     * with a positive value is a candidate, ranked by value gained per point spent on its path.
+     */
+    private List<Build> expand(Build build) {
+      int pointsLeft = budget - build.cost();
+      if (pointsLeft <= 0) return List.of();
+      search++;
+      int head = 0;
+      int tail = 0;
+      BitSet skills = build.skills();
+      for (int i = skills.nextSetBit(0); i >= 0; i = skills.nextSetBit(i + 1)) {
+        visit(i, -1, 0, 0);
+        queue[tail++] = i;
+      }
+      List<Integer> candidates = new ArrayList<>();
+      while (head < tail) {
+        int skill = queue[head++];
+        if (depth[skill] > 0 && values[skill] > 0) candidates.add(skill);
+        if (depth[skill] == pointsLeft) continue;
+        for (int n = 0; n < graph.getDegree(skill); n++) {
+          int neighbour = graph.getNeighbour(skill, n);
+          if (visited[neighbour] == search) continue;
+          visit(neighbour, skill, depth[skill] + 1, gain[skill] + values[neighbour]);
+          queue[tail++] = neighbour;
+        }
+      }
+      return candidates.stream()
+          .sorted(Comparator.comparingDouble(this::getGainPerPoint).reversed())
+          .limit(BRANCHING)
+          .map(skill -> extend(build, skill))
+          .toList();
+    }
+
+    private void visit(int skill, int from, int skillDepth, double skillGain) {
+      visited[skill] = search;
+      previous[skill] = from;
+      depth[skill] = skillDepth;
+      gain[skill] = skillGain;
+    }
+
+    private double getGainPerPoint(int skill) {
+      return gain[skill] / depth[skill];
+    }
+
+    private Build extend(Build build, int target) {
+      BitSet skills = (BitSet) build.skills().clone();
+      for (int skill = target; depth[skill] > 0; skill = previous[skill]) skills.set(skill);
+      return new Build(skills, build.cost() + depth[target], build.value() + gain[target]);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package daripher.skilltree.skill;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import javax.annotation.Nullable;
+
+/**
+ * Learned skills of a single player as a bitset over a {@link SkillGraph}. Learning is validated by
+ * looking at the skill's neighbours only. Refunds are validated against the articulation points of
+ * the learned subgraph, which are computed once after each change and reused for every query.
+ */
+public class LearnedSkillSet {
+  private static final int END = -2;
+  private static final int SKIP = -1;
+  private final SkillGraph graph;
+  private final BitSet learned = new BitSet();
+  private @Nullable BitSet articulationPoints;
+
+  public LearnedSkillSet(SkillGraph graph) {
+    this.graph = graph;
+  }
+
+  public static LearnedSkillSet of(SkillGraph graph, Collection<PassiveSkill> skills) {
+    LearnedSkillSet set = new LearnedSkillSet(graph);
+    for (PassiveSkill skill : skills) {
+      int index = graph.indexOf(skill.getId());
+      if (index != -1) set.learned.set(index);
+    }
+    return set;
+  }
+
+  public SkillGraph getGraph() {
+    return graph;
+  }
+
+  public BitSet getLearned() {
+    return learned;
+  }
+
+  public boolean contains(int index) {
+    return index >= 0 && learned.get(index);
+  }
+
+  public boolean canLearn(int index) {
+    if (index < 0 || learned.get(index)) return false;
+    if (learned.isEmpty()) return graph.isStartingPoint(index);
+    for (int n = 0; n < graph.getDegree(index); n++) {
+      if (learned.get(graph.getNeighbour(index, n))) return true;
+    }
+    return false;
+  }
+
+  public boolean canRefund(int index) {
+    if (!contains(index)) return false;
+    if (articulationPoints == null) articulationPoints = findArticulationPoints();
+    return !articulationPoints.get(index);
+  }
+
+  public void add(int index) {
+    learned.set(index);
+    articulationPoints = null;
+  }
+
+  public void remove(int index) {
+    learned.clear(index);
+    articulationPoints = null;
+  }
+
+  public void clear() {
+    learned.clear();
+    articulationPoints = null;
+  }
+
+  /**
+   * Iterative Tarjan search over the learned subgraph with an extra root node connected to every
+   * learned starting point. A skill can be refunded unless it is an articulation point of that
+   * graph, as removing any other skill keeps the rest reachable from a starting point.
+   */
+  private BitSet findArticulationPoints() {
+    int[] nodes = learned.stream().toArray();
+    int root = nodes.length;
+    int[] discovery = new int[root + 1];
+    int[] low = new int[root + 1];
+    int[] parent = new int[root + 1];
+    int[] iterator = new int[root + 1];
+    int[] stack = new int[root + 1];
+    int[] roots = graph.getStartingPoints().stream().filter(learned::get).toArray();
+    BitSet result = new BitSet();
+    Arrays.fill(parent, -1);
+    int time = 1;
+    int top = 0;
+    discovery[root] = low[root] = time;
+    stack[top++] = root;
+    while (top > 0) {
+      int node = stack[top - 1];
+      int next = getNeighbour(nodes, roots, node, iterator[node]++);
+      if (next == END) {
+        top--;
+        if (top == 0) continue;
+        int nodeParent = stack[top - 1];
+        low[nodeParent] = Math.min(low[nodeParent], low[node]);
+        if (nodeParent != root && low[node] >= discovery[nodeParent]) {
+          result.set(nodes[nodeParent]);
+        }
+        continue;
+      }
+      if (next == SKIP) continue;
+      if (discovery[next] == 0) {
+        discovery[next] = low[next] = ++time;
+        parent[next] = node;
+        stack[top++] = next;
+      } else if (next != parent[node]) {
+        low[node] = Math.min(low[node], discovery[next]);
+      }
+    }
+    return result;
+  }
+
+  private int getNeighbour(int[] nodes, int[] roots, int node, int n) {
+    int root = nodes.length;
+    if (node == root) {
+      return n < roots.length ? Arrays.binarySearch(nodes, roots[n]) : END;
+    }
+    int skill = nodes[node];
+    int degree = graph.getDegree(skill);
+    if (n < degree) {
+      int neighbour = graph.getNeighbour(skill, n);
+      return learned.get(neighbour) ? Arrays.binarySearch(nodes, neighbour) : SKIP;
+    }
+    return n == degree && graph.isStartingPoint(skill) ? root : END;
+  }
+}
@@ -0,0 +1,98 @@
+package daripher.skilltree.skill;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Immutable int-indexed view of the skill catalog. Regular and gateway connections are stored as
+ * undirected edges in compressed arrays, so that neighbour lookups don't touch any maps.
+ */
+public class SkillGraph {
+  private final PassiveSkill[] skills;
+  private final Object2IntOpenHashMap<ResourceLocation> indexes;
+  private final BitSet startingPoints = new BitSet();
+  private final int[] edgeOffsets;
+  private final int[] edges;
+
+  private SkillGraph(Collection<PassiveSkill> skills) {
+    this.skills = skills.toArray(PassiveSkill[]::new);
+    this.indexes = new Object2IntOpenHashMap<>(this.skills.length);
+    this.indexes.defaultReturnValue(-1);
+    for (int i = 0; i < this.skills.length; i++) {
+      indexes.put(this.skills[i].getId(), i);
+      if (this.skills[i].isStartingPoint()) startingPoints.set(i);
+    }
+    IntArrayList[] adjacency = new IntArrayList[this.skills.length];
+    for (int i = 0; i < adjacency.length; i++) adjacency[i] = new IntArrayList();
+    for (int i = 0; i < this.skills.length; i++) {
+      addEdges(adjacency, i, this.skills[i].getConnectedSkills());
+      addEdges(adjacency, i, this.skills[i].getConnectedAsGateways());
+    }
+    edgeOffsets = new int[this.skills.length + 1];
+    for (int i = 0; i < adjacency.length; i++) {
+      int[] neighbours = adjacency[i].toIntArray();
+      Arrays.sort(neighbours);
+      adjacency[i] = IntArrayList.wrap(neighbours, unique(neighbours));
+      edgeOffsets[i + 1] = edgeOffsets[i] + adjacency[i].size();
+    }
+    edges = new int[edgeOffsets[this.skills.length]];
+    for (int i = 0; i < adjacency.length; i++) {
+      adjacency[i].getElements(0, edges, edgeOffsets[i], adjacency[i].size());
+    }
+  }
+
+  public static SkillGraph of(Collection<PassiveSkill> skills) {
+    return new SkillGraph(skills);
+  }
+
+  private void addEdges(IntArrayList[] adjacency, int index, List<ResourceLocation> connections) {
+    for (ResourceLocation connectedId : connections) {
+      int connectedIndex = indexes.getInt(connectedId);
+      if (connectedIndex == -1 || connectedIndex == index) continue;
+      adjacency[index].add(connectedIndex);
+      adjacency[connectedIndex].add(index);
+    }
+  }
+
+  private static int unique(int[] sorted) {
+    if (sorted.length == 0) return 0;
+    int size = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[size - 1]) sorted[size++] = sorted[i];
+    }
+    return size;
+  }
+
+  public int size() {
+    return skills.length;
+  }
+
+  public int indexOf(ResourceLocation skillId) {
+    return indexes.getInt(skillId);
+  }
+
+  public PassiveSkill getSkill(int index) {
+    return skills[index];
+  }
+
+  public boolean isStartingPoint(int index) {
+    return startingPoints.get(index);
+  }
+
+  public BitSet getStartingPoints() {
+    return startingPoints;
+  }
+
+  public int getDegree(int index) {
+    return edgeOffsets[index + 1] - edgeOffsets[index];
+  }
+
+  public int getNeighbour(int index, int n) {
+    return edges[edgeOffsets[index] + n];
+  }
+}
@@ -0,0 +1,49 @@
+package daripher.skilltree.skill;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import javax.annotation.Nullable;
+
+public class SkillPathfinder {
+  /**
+   * Finds the cheapest way to learn the target skill. Runs a breadth-first search started from every
+   * learned skill at once (or from every starting point if nothing is learned yet), so the first
+   * time the target is reached the path costs the fewest skill points.
+   *
+   * @return indexes of the skills to learn in order, ending with the target, or null if the target
+   *     can't be reached
+   */
+  public static @Nullable int[] findPath(SkillGraph graph, BitSet learned, int target) {
+    if (target < 0) return null;
+    if (learned.get(target)) return new int[0];
+    int[] previous = new int[graph.size()];
+    Arrays.fill(previous, -2);
+    int[] queue = new int[graph.size()];
+    int head = 0;
+    int tail = 0;
+    BitSet sources = learned.isEmpty() ? graph.getStartingPoints() : learned;
+    for (int i = sources.nextSetBit(0); i >= 0; i = sources.nextSetBit(i + 1)) {
+      previous[i] = -1;
+      queue[tail++] = i;
+    }
+    while (head < tail) {
+      int skill = queue[head++];
+      if (skill == target) return buildPath(previous, learned, target);
+      for (int n = 0; n < graph.getDegree(skill); n++) {
+        int neighbour = graph.getNeighbour(skill, n);
+        if (previous[neighbour] != -2) continue;
+        previous[neighbour] = skill;
+        queue[tail++] = neighbour;
+      }
+    }
+    return null;
+  }
+
+  private static int[] buildPath(int[] previous, BitSet learned, int target) {
+    int length = 0;
+    for (int skill = target; skill != -1 && !learned.get(skill); skill = previous[skill]) length++;
+    int[] path = new int[length];
+    for (int skill = target; length > 0; skill = previous[skill]) path[--length] = skill;
+    return path;
+  }
+}
@@ -29,6 +29,14 @@ public interface SkillBonus<T extends SkillBonus<T>> {
 
   boolean canMerge(SkillBonus<?> other);
 
+  /**
+   * @return key that is equal for all bonuses this bonus can merge with. It may be equal for
+   *     bonuses that can't merge, {@link #canMerge} is still checked for bonuses with equal keys
+   */
+  default Object getMergeKey() {
+    return getClass();
+  }
+
   default boolean sameBonus(SkillBonus<?> other) {
     return canMerge(other);
   }
@@ -2,6 +2,8 @@ package daripher.skilltree.skill.bonus;
 
 import daripher.skilltree.SkillTreeMod;
 import daripher.skilltree.capability.skill.PlayerSkillsProvider;
+import daripher.skilltree.diagnostics.SkillTreeEvents;
+import daripher.skilltree.diagnostics.SkillTreeMetrics;
 import daripher.skilltree.effect.SkillBonusEffect;
 import daripher.skilltree.item.ItemHelper;
 import daripher.skilltree.skill.PassiveSkill;
@@ -106,13 +108,17 @@ public class SkillBonusHandler {
     if (event.player.isDeadOrDying()) return;
     if (!(event.player instanceof ServerPlayer player)) return;
     if (event.phase == TickEvent.Phase.END) return;
-    getSkillBonuses(player, SkillBonus.Ticking.class).forEach(bonus -> bonus.tick(player));
+    List<SkillBonus.Ticking> bonuses = getSkillBonuses(player, SkillBonus.Ticking.class);
+    SkillTreeMetrics.TICKING_BONUS_EVALUATIONS.add(bonuses.size());
+    bonuses.forEach(bonus -> bonus.tick(player));
   }
 
   @SubscribeEvent(priority = EventPriority.HIGH)
   public static void applyFlatDamageBonus(LivingHurtEvent event) {
     DamageSource damageSource = event.getSource();
     if (!(damageSource.getEntity() instanceof Player player)) return;
+    SkillTreeEvents.DamageStage stage = new SkillTreeEvents.DamageStage();
+    stage.begin();
     List<DamageBonus> bonuses = getSkillBonuses(player, DamageBonus.class);
     float amount = 0;
     for (DamageBonus bonus : bonuses) {
@@ -120,13 +126,17 @@ public class SkillBonusHandler {
           bonus.getDamageBonus(
               AttributeModifier.Operation.ADDITION, damageSource, player, event.getEntity());
     }
-    event.setAmount(event.getAmount() + amount);
+    float damage = event.getAmount();
+    event.setAmount(damage + amount);
+    stage.finish(player, DamageBonus.class, "addition", bonuses.size(), damage, event.getAmount());
   }
 
   @SubscribeEvent
   public static void applyDamageMultipliers(LivingHurtEvent event) {
     DamageSource damageSource = event.getSource();
     if (!(damageSource.getEntity() instanceof Player player)) return;
+    SkillTreeEvents.DamageStage stage = new SkillTreeEvents.DamageStage();
+    stage.begin();
     List<DamageBonus> bonuses = getSkillBonuses(player, DamageBonus.class);
     float multiplier = 1f;
     for (DamageBonus bonus : bonuses) {
@@ -134,13 +144,18 @@ public class SkillBonusHandler {
           bonus.getDamageBonus(
               AttributeModifier.Operation.MULTIPLY_BASE, damageSource, player, event.getEntity());
     }
-    event.setAmount(event.getAmount() * multiplier);
+    float damage = event.getAmount();
+    event.setAmount(damage * multiplier);
+    stage.finish(
+        player, DamageBonus.class, "multiply_base", bonuses.size(), damage, event.getAmount());
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void applyLastDamageMultipliers(LivingHurtEvent event) {
     DamageSource damageSource = event.getSource();
     if (!(damageSource.getEntity() instanceof Player player)) return;
+    SkillTreeEvents.DamageStage stage = new SkillTreeEvents.DamageStage();
+    stage.begin();
     List<DamageBonus> bonuses = getSkillBonuses(player, DamageBonus.class);
     float multiplier = 1f;
     for (DamageBonus bonus : bonuses) {
@@ -148,7 +163,10 @@ public class SkillBonusHandler {
           bonus.getDamageBonus(
               AttributeModifier.Operation.MULTIPLY_TOTAL, damageSource, player, event.getEntity());
     }
-    event.setAmount(event.getAmount() * multiplier);
+    float damage = event.getAmount();
+    event.setAmount(damage * multiplier);
+    stage.finish(
+        player, DamageBonus.class, "multiply_total", bonuses.size(), damage, event.getAmount());
   }
 
   @SubscribeEvent
@@ -180,21 +198,29 @@ public class SkillBonusHandler {
 
   private static float getCritDamageMultiplier(
       ServerPlayer player, DamageSource source, LivingEntity target) {
+    SkillTreeEvents.DamageStage stage = new SkillTreeEvents.DamageStage();
+    stage.begin();
     List<CritDamageBonus> damageBonuses = getSkillBonuses(player, CritDamageBonus.class);
     float multiplier = 1.5f;
     for (CritDamageBonus bonus : damageBonuses) {
       multiplier += bonus.getDamageBonus(source, player, target);
     }
+    stage.finish(
+        player, CritDamageBonus.class, "crit_damage", damageBonuses.size(), 1.5f, multiplier);
     return multiplier;
   }
 
   private static float getCritChance(
       ServerPlayer player, DamageSource source, LivingEntity target) {
+    SkillTreeEvents.DamageStage stage = new SkillTreeEvents.DamageStage();
+    stage.begin();
     float critChance = 0f;
     List<CritChanceBonus> chanceBonuses = getSkillBonuses(player, CritChanceBonus.class);
     for (CritChanceBonus bonus : chanceBonuses) {
       critChance += bonus.getChanceBonus(source, player, target);
     }
+    stage.finish(
+        player, CritChanceBonus.class, "crit_chance", chanceBonuses.size(), 0f, critChance);
     return critChance;
   }
 
@@ -270,11 +296,15 @@ public class SkillBonusHandler {
   }
 
   public static <T> List<T> getSkillBonuses(Player player, Class<T> type) {
+    SkillTreeEvents.BonusLookup lookup = new SkillTreeEvents.BonusLookup();
+    lookup.begin();
     List<T> bonuses = new ArrayList<>();
     PlayerSkillsProvider.get(player).getPlayerSkills().stream()
         .map(PassiveSkill::getBonuses)
         .forEach(b -> b.stream().filter(type::isInstance).map(type::cast).forEach(bonuses::add));
     bonuses.addAll(getEffectBonuses(player, type));
+    lookup.finish(player, type, bonuses.size());
+    SkillTreeMetrics.BONUS_LOOKUPS.increment();
     return bonuses;
   }
 
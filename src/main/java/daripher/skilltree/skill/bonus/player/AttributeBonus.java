@@ -6,12 +6,14 @@ import daripher.skilltree.client.screen.SkillTreeEditor;
 import daripher.skilltree.client.skill.SkillTreeClientData;
 import daripher.skilltree.client.widget.*;
 import daripher.skilltree.data.SerializationHelper;
+import daripher.skilltree.diagnostics.SkillTreeEvents;
 import daripher.skilltree.init.PSTSkillBonuses;
 import daripher.skilltree.network.NetworkHelper;
 import daripher.skilltree.skill.PassiveSkill;
 import daripher.skilltree.skill.bonus.SkillBonus;
 import daripher.skilltree.skill.bonus.condition.living.LivingCondition;
 import daripher.skilltree.skill.bonus.multiplier.SkillBonusMultiplier;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -86,7 +88,11 @@ public final class AttributeBonus implements SkillBonus<AttributeBonus>, SkillBo
   public void tick(ServerPlayer player) {
     if (playerCondition == null && multiplier == null) return;
     if (playerCondition != null) {
-      if (!playerCondition.met(player)) {
+      SkillTreeEvents.ConditionEvaluation evaluation = new SkillTreeEvents.ConditionEvaluation();
+      evaluation.begin();
+      boolean met = playerCondition.met(player);
+      evaluation.finish(player, "AttributeBonus", met);
+      if (!met) {
         onSkillRemoved(player);
         return;
       }
@@ -145,6 +151,11 @@ public final class AttributeBonus implements SkillBonus<AttributeBonus>, SkillBo
     return this;
   }
 
+  @Override
+  public Object getMergeKey() {
+    return List.of(attribute, modifier.getOperation());
+  }
+
   @Override
   public boolean canMerge(SkillBonus<?> other) {
     if (!(other instanceof AttributeBonus otherBonus)) return false;
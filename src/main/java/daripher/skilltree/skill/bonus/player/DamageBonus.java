@@ -146,6 +146,14 @@ public final class DamageBonus implements SkillBonus<DamageBonus> {
     return this;
   }
 
+  public float getAmount() {
+    return amount;
+  }
+
+  public AttributeModifier.Operation getOperation() {
+    return operation;
+  }
+
   public static class Serializer implements SkillBonus.Serializer {
     @Override
     public DamageBonus deserialize(JsonObject json) throws JsonParseException {